@@ -1,20 +0,0 @@
-package com.cleveroad.cyclemenuwidget;
-
-import android.view.animation.Animation;
-
-class AnimationListenerAdapter implements Animation.AnimationListener {
-    @Override
-    public void onAnimationStart(Animation animation) {
-
-    }
-
-    @Override
-    public void onAnimationEnd(Animation animation) {
-
-    }
-
-    @Override
-    public void onAnimationRepeat(Animation animation) {
-
-    }
-}
@@ -0,0 +1,94 @@
+package com.cleveroad.cyclemenuwidget;
+
+import android.content.res.Resources;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.Nullable;
+
+/**
+ * Drawable which draws the menu icon from the {@link IconAtlas}. Is reused by the item for each bound icon.
+ * Icons which can't be shared are drawn directly.
+ */
+class AtlasIconDrawable extends Drawable {
+
+    private IconAtlas mAtlas;
+    private Resources mResources;
+    private Paint mPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    @Nullable
+    private Drawable mIcon;
+    private int mSize;
+    private int mTint;
+    @Nullable
+    private IconAtlas.Entry mEntry;
+    private int mEntryGeneration;
+
+    /**
+     * @param resources resources of the context of the item, icons are rasterized with them
+     */
+    AtlasIconDrawable(IconAtlas atlas, Resources resources, int size) {
+        mAtlas = atlas;
+        mResources = resources;
+        mSize = size;
+    }
+
+    /**
+     * @param icon icon to draw
+     * @param tint color to tint the icon, {@link android.graphics.Color#TRANSPARENT} to keep colors of the icon
+     */
+    void setIcon(@Nullable Drawable icon, int tint) {
+        if (mIcon == icon && mTint == tint) {
+            return;
+        }
+        mIcon = icon;
+        mTint = tint;
+        mEntry = null;
+        invalidateSelf();
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        if (mIcon == null) {
+            return;
+        }
+        if (mEntry == null || mEntryGeneration != mAtlas.getGeneration()) {
+            mEntry = mAtlas.obtain(mResources, mIcon, mSize, mTint);
+            mEntryGeneration = mAtlas.getGeneration();
+        }
+        if (mEntry != null) {
+            canvas.drawBitmap(mEntry.getPage(), mEntry.getBounds(), getBounds(), mPaint);
+        } else {
+            mIcon.setBounds(getBounds());
+            mIcon.draw(canvas);
+        }
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return mSize;
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return mSize;
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        mPaint.setAlpha(alpha);
+        invalidateSelf();
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        mPaint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+}
@@ -0,0 +1,719 @@
+package com.cleveroad.cyclemenuwidget;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.Bundle;
+import android.support.annotation.Nullable;
+import android.support.v4.content.ContextCompat;
+import android.support.v4.view.ViewCompat;
+import android.support.v4.view.accessibility.AccessibilityNodeInfoCompat;
+import android.support.v4.widget.ExploreByTouchHelper;
+import android.support.v7.widget.RecyclerView;
+import android.text.TextUtils;
+import android.view.HapticFeedbackConstants;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.SoundEffectConstants;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewParent;
+import android.view.accessibility.AccessibilityEvent;
+import android.widget.OverScroller;
+
+import com.cleveroad.cyclemenuwidget.CycleMenuWidget.CORNER;
+
+import java.util.List;
+
+/**
+ * Lightweight container of the menu items. Draws all visible items as icons on circles in one draw pass
+ * instead of the FloatingActionButton per item. Items are placed on the same arc as in {@link CycleLayoutManager},
+ * scrolled by rotation and hit-tested by angle.
+ */
+class CanvasMenuView extends View implements ItemsRollAnimator.Target {
+
+    private static final int[] PRESSED_STATE_SET = new int[]{android.R.attr.state_pressed, android.R.attr.state_enabled};
+    private static final int[] ENABLED_STATE_SET = new int[]{android.R.attr.state_enabled};
+
+    private RecyclerMenuAdapter mAdapter;
+    private ItemsRollAnimator mRollAnimator;
+    @Nullable
+    private OnItemsRotatedListener mOnItemsRotatedListener;
+    private CORNER mCorner = CORNER.RIGHT_TOP;
+    private boolean mEndless = false;
+    private boolean mScrollEnabled = false;
+
+    /**
+     * Diameter of the item circle and size of the icon inside.
+     */
+    private int mItemSize;
+    private int mIconSize;
+    private float mShadowOffset;
+    private ColorStateList mItemsBackgroundTint;
+    private int mDefaultItemColor;
+
+    /**
+     * Radius of the arc on which centers of the items are placed.
+     */
+    private int mRadius;
+    private double mAnglePerItem = -1;
+    /**
+     * Angle in degrees of the item with index 0. Angle of the item with index i is mScrollAngle - i * mAnglePerItem.
+     * In the ENDLESS mode index can be any integer.
+     */
+    private double mScrollAngle;
+    private double mMinScrollAngle;
+    private double mMaxScrollAngle;
+
+    /**
+     * Position and angle offset of the first item to be applied with the next setup.
+     */
+    private int mPendingPosition = RecyclerView.NO_POSITION;
+    private double mPendingAngleOffset = CycleMenuWidget.UNDEFINED_ANGLE_VALUE;
+
+    private Paint mItemPaint;
+    private Paint mShadowPaint;
+    private Paint mIconPaint;
+    private Rect mIconBounds = new Rect();
+    private IconAtlas mIconAtlas;
+
+    private PolarGestureTracker mGestureTracker;
+    private OverScroller mScroller;
+    private int mLastFlingX;
+    private boolean mDragging;
+    /**
+     * True if the drag goes from/to the corner. Such drag is left to the parent.
+     */
+    private boolean mDragRejected;
+    private boolean mLongPressed;
+    private int mPressedIndex = RecyclerView.NO_POSITION;
+    /**
+     * View which is passed to the click listener, it has id of the clicked item as FloatingActionButton items have.
+     */
+    private View mClickedItemView;
+    private ItemsAccessibilityHelper mAccessibilityHelper;
+
+    private Runnable mLongPressRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (mPressedIndex != RecyclerView.NO_POSITION) {
+                mLongPressed = true;
+                performHapticFeedback(HapticFeedbackConstants.LONG_PRESS);
+                dispatchItemClick(mPressedIndex, true);
+            }
+        }
+    };
+
+    private RecyclerView.AdapterDataObserver mDataObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            invalidateSetup();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            invalidate();
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            invalidateSetup();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            invalidateSetup();
+        }
+    };
+
+    CanvasMenuView(Context context, RecyclerMenuAdapter adapter, ItemsRollAnimator rollAnimator) {
+        super(context);
+        mAdapter = adapter;
+        mRollAnimator = rollAnimator;
+        setSaveEnabled(false);
+        mItemSize = getResources().getDimensionPixelSize(R.dimen.cm_canvas_item_size);
+        mIconSize = getResources().getDimensionPixelSize(R.dimen.cm_item_icon_size);
+        mShadowOffset = getResources().getDimension(R.dimen.cm_canvas_item_shadow_offset);
+
+        TypedArray themeValues = context.obtainStyledAttributes(new int[]{R.attr.colorAccent});
+        mDefaultItemColor = themeValues.getColor(0, Color.GRAY);
+        themeValues.recycle();
+
+        mItemPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mItemPaint.setStyle(Paint.Style.FILL);
+        mShadowPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mShadowPaint.setStyle(Paint.Style.FILL);
+        mShadowPaint.setColor(ContextCompat.getColor(context, R.color.cm_shadow_start_color));
+        mIconPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        mIconAtlas = IconAtlas.get();
+
+        mGestureTracker = new PolarGestureTracker(context);
+        mScroller = new OverScroller(context);
+        mClickedItemView = new View(context);
+        mAccessibilityHelper = new ItemsAccessibilityHelper(this);
+        ViewCompat.setAccessibilityDelegate(this, mAccessibilityHelper);
+    }
+
+    /**
+     * @return size of the item which widget uses to calculate radius of the menu
+     */
+    int getItemSize() {
+        return mItemSize;
+    }
+
+    void setOnItemsRotatedListener(@Nullable OnItemsRotatedListener onItemsRotatedListener) {
+        mOnItemsRotatedListener = onItemsRotatedListener;
+    }
+
+    /**
+     * @return angle in degrees between the neighbour items or -1 if items are not set up yet
+     */
+    double getAnglePerItem() {
+        return mAnglePerItem;
+    }
+
+    /**
+     * @param position position of the item
+     * @return current angle in degrees of the center of the item, in the ENDLESS mode is one of the angles of the item
+     */
+    double getPositionAngle(int position) {
+        return getItemAngle(position);
+    }
+
+    /**
+     * Canvas items have the same size, so each of them takes the same angle.
+     *
+     * @param position position of the item
+     * @return angle in degrees which the item takes on the arc
+     */
+    double getPositionSpan(int position) {
+        return mAnglePerItem;
+    }
+
+    /**
+     * @return angle in degrees of all items
+     */
+    double getItemsAngle() {
+        return mAnglePerItem > 0 ? getRealItemsCount() * mAnglePerItem : 0;
+    }
+
+    /**
+     * @param angle angle in degrees on the arc
+     * @return position of the item at the angle or {@link RecyclerView#NO_POSITION} if there is no item
+     */
+    int getPositionAtAngle(double angle) {
+        int count = getRealItemsCount();
+        if (mAnglePerItem <= 0 || count == 0) {
+            return RecyclerView.NO_POSITION;
+        }
+        int index = (int) Math.round((mScrollAngle - angle) / mAnglePerItem);
+        if (mEndless) {
+            return toRealIndex(index);
+        }
+        return index < 0 || index >= count ? RecyclerView.NO_POSITION : index;
+    }
+
+    void setCorner(CORNER corner) {
+        mCorner = corner;
+        mGestureTracker.setCorner(corner);
+        invalidate();
+    }
+
+    void setEndless(boolean endless) {
+        if (mEndless != endless) {
+            mEndless = endless;
+            invalidateSetup();
+        }
+    }
+
+    void setScrollEnabled(boolean scrollEnabled) {
+        mScrollEnabled = scrollEnabled;
+        if (!scrollEnabled) {
+            mScroller.abortAnimation();
+        }
+    }
+
+    void setItemsBackgroundTint(ColorStateList itemsBackgroundTint) {
+        mItemsBackgroundTint = itemsBackgroundTint;
+        invalidate();
+    }
+
+    /**
+     * Set first item and its offset. Is applied on the next setup of the items.
+     *
+     * @param position    position of the first item
+     * @param angleOffset offset of the first item in degrees
+     */
+    void setFirstItem(int position, double angleOffset) {
+        mPendingPosition = position;
+        mPendingAngleOffset = angleOffset;
+        invalidateSetup();
+    }
+
+    /**
+     * Rotate items on the angle with animation.
+     *
+     * @param degrees angle in degrees, positive to increase angles of the items
+     */
+    void smoothRotateBy(double degrees) {
+        if (mAnglePerItem <= 0) {
+            return;
+        }
+        mScroller.abortAnimation();
+        mLastFlingX = 0;
+        mScroller.startScroll(0, 0, (int) Math.round(degrees * Math.PI / 180 * mRadius), 0);
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    /**
+     * @return position of the first visible item
+     */
+    int getCurrentPosition() {
+        if (mAnglePerItem <= 0 || getRealItemsCount() == 0) {
+            return RecyclerView.NO_POSITION;
+        }
+        return toRealIndex(getFirstVisibleIndex());
+    }
+
+    /**
+     * @return shift angle of the first visible item in degrees
+     */
+    double getCurrentItemsAngleOffset() {
+        if (mAnglePerItem <= 0 || getRealItemsCount() == 0) {
+            return 0;
+        }
+        return 90 - getItemAngle(getFirstVisibleIndex());
+    }
+
+    /**
+     * @return true if count of the items is enough to scroll
+     */
+    boolean isCountOfItemsAvailableToScroll() {
+        return mEndless || mMinScrollAngle < mMaxScrollAngle;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mAdapter.registerAdapterDataObserver(mDataObserver);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mAdapter.unregisterAdapterDataObserver(mDataObserver);
+        removeCallbacks(mLongPressRunnable);
+        mScroller.abortAnimation();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        invalidateSetup();
+    }
+
+    private void invalidateSetup() {
+        if (mAnglePerItem > 0 && mPendingPosition == RecyclerView.NO_POSITION && getRealItemsCount() > 0) {
+            //keep current rotation after the setup
+            mPendingPosition = getCurrentPosition();
+            mPendingAngleOffset = getCurrentItemsAngleOffset();
+        }
+        mAnglePerItem = -1;
+        invalidate();
+        mAccessibilityHelper.invalidateRoot();
+    }
+
+    /**
+     * Calculate radius and angles of the items. The same metrics as in {@link CycleLayoutManager} are used
+     * so canvas items are placed as FloatingActionButtons.
+     */
+    private void setupIfNeeded() {
+        if (mAnglePerItem > 0 || getWidth() <= 0 || getHeight() <= 0) {
+            return;
+        }
+        mRadius = Math.min(getWidth(), getHeight()) - mItemSize * 4 / 5;
+        if (mRadius <= 0) {
+            return;
+        }
+        double circleLength = 2 * Math.PI * mRadius;
+        mAnglePerItem = 360.0 * mItemSize / circleLength * CycleLayoutManager.SCALING_COEFFICIENT;
+
+        int count = getRealItemsCount();
+        mMaxScrollAngle = 90 - mAnglePerItem / 2.0;
+        mMinScrollAngle = Math.min(mMaxScrollAngle, mAnglePerItem / 2.0 + (count - 1) * mAnglePerItem);
+
+        double firstAngle = mPendingAngleOffset < -999 ? mMaxScrollAngle : 90 - mPendingAngleOffset;
+        int firstIndex = mPendingPosition == RecyclerView.NO_POSITION || count == 0 ? 0 : toRealIndex(mPendingPosition);
+        mPendingPosition = RecyclerView.NO_POSITION;
+        mPendingAngleOffset = CycleMenuWidget.UNDEFINED_ANGLE_VALUE;
+        setScrollAngle(firstAngle + firstIndex * mAnglePerItem);
+    }
+
+    private int getRealItemsCount() {
+        return mAdapter.getRealItemsCount();
+    }
+
+    private int toRealIndex(int index) {
+        int count = getRealItemsCount();
+        int realIndex = index % count;
+        return realIndex < 0 ? realIndex + count : realIndex;
+    }
+
+    private double getItemAngle(int index) {
+        return mScrollAngle - index * mAnglePerItem;
+    }
+
+    /**
+     * @return index of the first item which is visible at least partially
+     */
+    private int getFirstVisibleIndex() {
+        int index = (int) Math.ceil((mScrollAngle - 90 - mAnglePerItem / 2.0) / mAnglePerItem);
+        return mEndless ? index : Math.max(index, 0);
+    }
+
+    /**
+     * @return index of the last item which is visible at least partially
+     */
+    private int getLastVisibleIndex() {
+        int index = (int) Math.floor((mScrollAngle + mAnglePerItem / 2.0) / mAnglePerItem);
+        return mEndless ? index : Math.min(index, getRealItemsCount() - 1);
+    }
+
+    /**
+     * Set angle of the first item. In the BASIC mode angle is clamped by the first and the last items.
+     *
+     * @return true if angle was clamped
+     */
+    private boolean setScrollAngle(double scrollAngle) {
+        boolean clamped = false;
+        if (mEndless) {
+            //keep angle small to not lose precision, rotation is periodic by the count of items
+            double period = getRealItemsCount() * mAnglePerItem;
+            if (period > 0) {
+                scrollAngle %= period;
+            }
+        } else if (scrollAngle > mMaxScrollAngle) {
+            scrollAngle = mMaxScrollAngle;
+            clamped = true;
+        } else if (scrollAngle < mMinScrollAngle) {
+            scrollAngle = mMinScrollAngle;
+            clamped = true;
+        }
+        mScrollAngle = scrollAngle;
+        invalidate();
+        mAccessibilityHelper.invalidateRoot();
+        if (mOnItemsRotatedListener != null) {
+            mOnItemsRotatedListener.onItemsRotated();
+        }
+        return clamped;
+    }
+
+    @Override
+    public int getRollItemsCount() {
+        setupIfNeeded();
+        if (mAnglePerItem <= 0 || getRealItemsCount() == 0) {
+            return 0;
+        }
+        return getLastVisibleIndex() - getFirstVisibleIndex() + 1;
+    }
+
+    @Override
+    public void onRollProgressChanged() {
+        invalidate();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        setupIfNeeded();
+        int count = getRealItemsCount();
+        if (mAnglePerItem <= 0 || count == 0) {
+            return;
+        }
+        int firstIndex = getFirstVisibleIndex();
+        int lastIndex = getLastVisibleIndex();
+        int rollCount = lastIndex - firstIndex + 1;
+        float outDegree = ItemsRollAnimator.getOutDegree(mCorner);
+        float cornerX = mCorner.isLeftSide() ? 0 : getWidth();
+        float cornerY = mCorner.isUpSide() ? 0 : getHeight();
+        float itemRadius = mItemSize / 2f;
+        for (int index = firstIndex; index <= lastIndex; index++) {
+            CycleMenuItem item = mAdapter.getItem(toRealIndex(index));
+            double angle = getItemAngle(index) * Math.PI / 180;
+            float centerX = (float) (mRadius * Math.cos(angle));
+            float centerY = (float) (mRadius * Math.sin(angle));
+            centerX = mCorner.isLeftSide() ? centerX : getWidth() - centerX;
+            centerY = mCorner.isUpSide() ? centerY : getHeight() - centerY;
+
+            float outFraction = mRollAnimator.getItemOutFraction(index - firstIndex, rollCount);
+            int saveCount = canvas.save();
+            if (outFraction != 0) {
+                canvas.rotate(outDegree * outFraction, cornerX, cornerY);
+            }
+            canvas.drawCircle(centerX, centerY + mShadowOffset, itemRadius + mShadowOffset, mShadowPaint);
+            mItemPaint.setColor(getItemColor(index == mPressedIndex));
+            canvas.drawCircle(centerX, centerY, itemRadius, mItemPaint);
+            Drawable icon = item.getIcon();
+            if (icon != null) {
+                int iconLeft = (int) (centerX - mIconSize / 2f);
+                int iconTop = (int) (centerY - mIconSize / 2f);
+                mIconBounds.set(iconLeft, iconTop, iconLeft + mIconSize, iconTop + mIconSize);
+                IconAtlas.Entry iconEntry = mIconAtlas.obtain(getResources(), icon, mIconSize, mAdapter.getItemsIconTint());
+                if (iconEntry != null) {
+                    canvas.drawBitmap(iconEntry.getPage(), iconEntry.getBounds(), mIconBounds, mIconPaint);
+                } else {
+                    icon.setBounds(mIconBounds);
+                    icon.draw(canvas);
+                }
+            }
+            canvas.restoreToCount(saveCount);
+        }
+    }
+
+    private int getItemColor(boolean pressed) {
+        if (mItemsBackgroundTint == null) {
+            return mDefaultItemColor;
+        }
+        return mItemsBackgroundTint.getColorForState(pressed ? PRESSED_STATE_SET : ENABLED_STATE_SET, mItemsBackgroundTint.getDefaultColor());
+    }
+
+    /**
+     * Find item under the touch point by the angle of the point.
+     *
+     * @return index of the item or NO_POSITION
+     */
+    private int findItemIndex(float x, float y) {
+        if (mAnglePerItem <= 0 || getRealItemsCount() == 0) {
+            return RecyclerView.NO_POSITION;
+        }
+        double localX = mCorner.isLeftSide() ? x : getWidth() - x;
+        double localY = mCorner.isUpSide() ? y : getHeight() - y;
+        double itemRadius = mItemSize / 2.0;
+        if (Math.abs(Math.hypot(localX, localY) - mRadius) > itemRadius) {
+            return RecyclerView.NO_POSITION;
+        }
+        double angle = Math.toDegrees(Math.atan2(localY, localX));
+        int index = (int) Math.round((mScrollAngle - angle) / mAnglePerItem);
+        if (!mEndless && (index < 0 || index >= getRealItemsCount())) {
+            return RecyclerView.NO_POSITION;
+        }
+        double arcDistance = Math.abs(angle - getItemAngle(index)) * Math.PI / 180 * mRadius;
+        return arcDistance <= itemRadius ? index : RecyclerView.NO_POSITION;
+    }
+
+    private void dispatchItemClick(int index, boolean longClick) {
+        int realIndex = toRealIndex(index);
+        //listener gets the item id from the view as with FloatingActionButton items
+        mClickedItemView.setId(mAdapter.getItem(realIndex).getId());
+        if (longClick) {
+            mAdapter.onMenuItemLongClick(mClickedItemView, realIndex);
+        } else {
+            mAdapter.onMenuItemClick(mClickedItemView, realIndex);
+        }
+        mAccessibilityHelper.sendEventForVirtualView(index - getFirstVisibleIndex(),
+                longClick ? AccessibilityEvent.TYPE_VIEW_LONG_CLICKED : AccessibilityEvent.TYPE_VIEW_CLICKED);
+    }
+
+    /**
+     * Set bounds of the visible item circle without roll animation.
+     */
+    private void getItemBounds(int index, Rect bounds) {
+        double angle = getItemAngle(index) * Math.PI / 180;
+        float centerX = (float) (mRadius * Math.cos(angle));
+        float centerY = (float) (mRadius * Math.sin(angle));
+        centerX = mCorner.isLeftSide() ? centerX : getWidth() - centerX;
+        centerY = mCorner.isUpSide() ? centerY : getHeight() - centerY;
+        int itemRadius = mItemSize / 2;
+        bounds.set((int) centerX - itemRadius, (int) centerY - itemRadius, (int) centerX + itemRadius, (int) centerY + itemRadius);
+        bounds.intersect(0, 0, getWidth(), getHeight());
+    }
+
+    private void setPressedIndex(int pressedIndex) {
+        if (mPressedIndex != pressedIndex) {
+            mPressedIndex = pressedIndex;
+            invalidate();
+        }
+    }
+
+    @Override
+    public boolean dispatchHoverEvent(MotionEvent event) {
+        return mAccessibilityHelper.dispatchHoverEvent(event) || super.dispatchHoverEvent(event);
+    }
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        return mAccessibilityHelper.dispatchKeyEvent(event) || super.dispatchKeyEvent(event);
+    }
+
+    @Override
+    protected void onFocusChanged(boolean gainFocus, int direction, @Nullable Rect previouslyFocusedRect) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+        mAccessibilityHelper.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (mAnglePerItem <= 0) {
+            return false;
+        }
+        float x = event.getX();
+        float y = event.getY();
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mScroller.abortAnimation();
+                mGestureTracker.onDown(event, getWidth(), getHeight());
+                mDragging = false;
+                mDragRejected = false;
+                mLongPressed = false;
+                setPressedIndex(findItemIndex(x, y));
+                if (mPressedIndex != RecyclerView.NO_POSITION) {
+                    postDelayed(mLongPressRunnable, ViewConfiguration.getLongPressTimeout());
+                }
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                double deltaAngle = mGestureTracker.onMove(event);
+                if (!mDragging && !mDragRejected && mGestureTracker.isOverSlop(event)) {
+                    //touch is a drag, not a click
+                    removeCallbacks(mLongPressRunnable);
+                    setPressedIndex(RecyclerView.NO_POSITION);
+                    if (mScrollEnabled && isCountOfItemsAvailableToScroll() && mGestureTracker.isAngularDrag(event)) {
+                        mDragging = true;
+                        mGestureTracker.startDrag(event);
+                        deltaAngle = 0;
+                        ViewParent parent = getParent();
+                        if (parent != null) {
+                            parent.requestDisallowInterceptTouchEvent(true);
+                        }
+                    } else {
+                        //drag from/to the corner is not taken, so the parent list can intercept it
+                        mDragRejected = true;
+                    }
+                }
+                if (mDragging) {
+                    setScrollAngle(mScrollAngle + deltaAngle);
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+                removeCallbacks(mLongPressRunnable);
+                if (mDragging) {
+                    fling(mGestureTracker.computeAngularVelocity(event));
+                } else if (!mLongPressed && mPressedIndex != RecyclerView.NO_POSITION && mPressedIndex == findItemIndex(x, y)) {
+                    playSoundEffect(SoundEffectConstants.CLICK);
+                    dispatchItemClick(mPressedIndex, false);
+                }
+                resetTouch();
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                removeCallbacks(mLongPressRunnable);
+                resetTouch();
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    private void resetTouch() {
+        mDragging = false;
+        setPressedIndex(RecyclerView.NO_POSITION);
+        mGestureTracker.reset();
+    }
+
+    /**
+     * Fling rotation with the angular velocity of the touch.
+     *
+     * @param angularVelocity velocity in degrees per second
+     */
+    private void fling(double angularVelocity) {
+        if (angularVelocity == 0 || mRadius <= 0) {
+            return;
+        }
+        mLastFlingX = 0;
+        int velocity = (int) (angularVelocity * Math.PI / 180 * mRadius);
+        mScroller.fling(0, 0, velocity, 0, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, 0);
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    @Override
+    public void computeScroll() {
+        if (!mScroller.computeScrollOffset()) {
+            return;
+        }
+        int currX = mScroller.getCurrX();
+        double deltaAngle = (currX - mLastFlingX) * 180 / (Math.PI * mRadius);
+        mLastFlingX = currX;
+        if (setScrollAngle(mScrollAngle + deltaAngle)) {
+            mScroller.abortAnimation();
+            return;
+        }
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    /**
+     * Exposes visible items to the accessibility services as virtual views. Id of the virtual view is the index
+     * of the item among the visible ones.
+     */
+    private class ItemsAccessibilityHelper extends ExploreByTouchHelper {
+
+        private Rect mBounds = new Rect();
+
+        ItemsAccessibilityHelper(View host) {
+            super(host);
+        }
+
+        @Override
+        protected int getVirtualViewAt(float x, float y) {
+            int index = findItemIndex(x, y);
+            return index == RecyclerView.NO_POSITION ? INVALID_ID : index - getFirstVisibleIndex();
+        }
+
+        @Override
+        protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+            if (mAnglePerItem <= 0 || getRealItemsCount() == 0) {
+                return;
+            }
+            for (int id = 0; id <= getLastVisibleIndex() - getFirstVisibleIndex(); id++) {
+                virtualViewIds.add(id);
+            }
+        }
+
+        @Override
+        protected void onPopulateNodeForVirtualView(int virtualViewId, AccessibilityNodeInfoCompat node) {
+            int index = getFirstVisibleIndex() + virtualViewId;
+            if (mAnglePerItem <= 0 || getRealItemsCount() == 0) {
+                //item is gone, node still needs the bounds and the description
+                node.setContentDescription("");
+                node.setBoundsInParent(mBounds);
+                return;
+            }
+            int realIndex = toRealIndex(index);
+            CharSequence label = mAdapter.getItem(realIndex).getLabel();
+            node.setContentDescription(TextUtils.isEmpty(label)
+                    ? getResources().getString(R.string.cm_item_content_description, realIndex + 1) : label);
+            getItemBounds(index, mBounds);
+            node.setBoundsInParent(mBounds);
+            node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+            node.addAction(AccessibilityNodeInfoCompat.ACTION_LONG_CLICK);
+        }
+
+        @Override
+        protected boolean onPerformActionForVirtualView(int virtualViewId, int action, Bundle arguments) {
+            if (mAnglePerItem <= 0 || getRealItemsCount() == 0) {
+                return false;
+            }
+            int index = getFirstVisibleIndex() + virtualViewId;
+            if (action == AccessibilityNodeInfoCompat.ACTION_CLICK) {
+                dispatchItemClick(index, false);
+                return true;
+            }
+            if (action == AccessibilityNodeInfoCompat.ACTION_LONG_CLICK) {
+                dispatchItemClick(index, true);
+                return true;
+            }
+            return false;
+        }
+    }
+}
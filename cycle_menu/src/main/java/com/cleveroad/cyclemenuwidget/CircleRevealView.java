@@ -0,0 +1,95 @@
+package com.cleveroad.cyclemenuwidget;
+
+import android.animation.Animator;
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewAnimationUtils;
+
+import com.cleveroad.cyclemenuwidget.CycleMenuWidget.CORNER;
+
+/**
+ * View that draws the background circle in its final size. Is used in lollipop and above to run open/close
+ * circle animation as a circular reveal on the RenderThread. Visible only while reveal is running.
+ */
+@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+class CircleRevealView extends View {
+
+    private CORNER mCorner = CORNER.RIGHT_TOP;
+    private int mRadius = 0;
+    private Paint mPaint;
+    private CornerOutlineProvider mOutlineProvider;
+
+    CircleRevealView(Context context, Paint circlePaint) {
+        super(context);
+        mPaint = circlePaint;
+        setVisibility(INVISIBLE);
+    }
+
+    void setCorner(CORNER corner) {
+        mCorner = corner;
+        if (mOutlineProvider != null) {
+            mOutlineProvider.setCorner(corner);
+            invalidateOutline();
+        }
+        invalidate();
+    }
+
+    void setRadius(int radius) {
+        if (mRadius == radius) {
+            return;
+        }
+        mRadius = radius;
+        if (mOutlineProvider != null) {
+            mOutlineProvider.setRadius(radius);
+            invalidateOutline();
+        }
+        invalidate();
+    }
+
+    /**
+     * Enable/disable elevation shadow. Shadow of the view is clipped by the reveal, so it grows with the circle.
+     *
+     * @param elevation elevation to set, 0 to disable shadow
+     */
+    void setShadowElevation(float elevation) {
+        if (elevation > 0) {
+            if (mOutlineProvider == null) {
+                mOutlineProvider = new CornerOutlineProvider();
+                mOutlineProvider.setCorner(mCorner);
+                mOutlineProvider.setRadius(mRadius);
+            }
+            setOutlineProvider(mOutlineProvider);
+        } else {
+            mOutlineProvider = null;
+            setOutlineProvider(null);
+        }
+        setElevation(elevation);
+    }
+
+    /**
+     * Create circular reveal anchored at the corner.
+     *
+     * @param fromRadius start radius of the reveal
+     * @param toRadius   end radius of the reveal
+     * @return animator that runs on the RenderThread
+     */
+    Animator createReveal(int fromRadius, int toRadius) {
+        int centerX = mCorner.isLeftSide() ? 0 : getWidth();
+        int centerY = mCorner.isUpSide() ? 0 : getHeight();
+        return ViewAnimationUtils.createCircularReveal(this, centerX, centerY, fromRadius, toRadius);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (mRadius <= 0) {
+            return;
+        }
+        int centerX = mCorner.isLeftSide() ? 0 : getWidth();
+        int centerY = mCorner.isUpSide() ? 0 : getHeight();
+        canvas.drawCircle(centerX, centerY, mRadius, mPaint);
+    }
+}
@@ -0,0 +1,79 @@
+package com.cleveroad.cyclemenuwidget;
+
+import android.annotation.TargetApi;
+import android.graphics.Outline;
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewOutlineProvider;
+
+import com.cleveroad.cyclemenuwidget.CycleMenuWidget.CORNER;
+
+/**
+ * Outline provider that describes the quarter of the background circle placed in the corner.
+ * Is used in lollipop and above to draw shadow of the circle with elevation on the RenderThread.
+ */
+@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+class CornerOutlineProvider extends ViewOutlineProvider {
+
+    private CORNER mCorner = CORNER.RIGHT_TOP;
+    private int mRadius = 0;
+
+    private Path mPath = new Path();
+    private Path mBoundsPath = new Path();
+    private RectF mOval = new RectF();
+    private RectF mBounds = new RectF();
+
+    void setCorner(CORNER corner) {
+        mCorner = corner;
+    }
+
+    void setRadius(int radius) {
+        mRadius = radius;
+    }
+
+    @Override
+    public void getOutline(View view, Outline outline) {
+        int width = view.getWidth();
+        int height = view.getHeight();
+        if (mRadius <= 0 || width <= 0 || height <= 0) {
+            outline.setEmpty();
+            return;
+        }
+        float centerX = mCorner.isLeftSide() ? 0 : width;
+        float centerY = mCorner.isUpSide() ? 0 : height;
+        float startAngle;
+        if (mCorner == CORNER.LEFT_TOP) {
+            startAngle = 0;
+        } else if (mCorner == CORNER.RIGHT_TOP) {
+            startAngle = 90;
+        } else if (mCorner == CORNER.RIGHT_BOTTOM) {
+            startAngle = 180;
+        } else {
+            startAngle = 270;
+        }
+        mOval.set(centerX - mRadius, centerY - mRadius, centerX + mRadius, centerY + mRadius);
+        mPath.reset();
+        mPath.moveTo(centerX, centerY);
+        mPath.arcTo(mOval, startAngle, 90, false);
+        mPath.close();
+
+        //circle is clipped by the widget bounds, so need to clip outline too.
+        if (mRadius > width || mRadius > height) {
+            mBounds.set(0, 0, width, height);
+            mBoundsPath.reset();
+            mBoundsPath.addRect(mBounds, Path.Direction.CW);
+            mPath.op(mBoundsPath, Path.Op.INTERSECT);
+        }
+        if (mPath.isConvex()) {
+            outline.setConvexPath(mPath);
+        } else {
+            //intersection isn't always reported as convex, and setConvexPath throws for such paths before API 29
+            mPath.computeBounds(mBounds, true);
+            outline.setRect(Math.round(mBounds.left), Math.round(mBounds.top),
+                    Math.round(mBounds.right), Math.round(mBounds.bottom));
+        }
+        outline.setAlpha(1f);
+    }
+}
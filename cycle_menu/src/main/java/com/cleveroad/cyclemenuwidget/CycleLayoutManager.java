@@ -7,20 +7,29 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v7.widget.RecyclerView;
 import android.util.SparseArray;
+import android.util.SparseIntArray;
 import android.view.View;
-import android.view.animation.Animation;
-import android.view.animation.DecelerateInterpolator;
-import android.view.animation.LinearInterpolator;
-import android.view.animation.RotateAnimation;
+
+import java.util.Arrays;
 
 import com.cleveroad.cyclemenuwidget.CycleMenuWidget.CORNER;
 
-class CycleLayoutManager extends RecyclerView.LayoutManager {
+class CycleLayoutManager extends RecyclerView.LayoutManager implements ItemsRollAnimator.Target {
 
     /**
      * Scaling coefficient that is used for increasing spaces between two items in lollipop
      */
-    private static final double SCALING_COEFFICIENT = 1.3;
+    static final double SCALING_COEFFICIENT = 1.3;
+
+    /**
+     * Count of the items which are prefetched ahead of the scroll direction if items are rotated faster than half an item per frame.
+     */
+    private static final int MAX_PREFETCH_ITEMS_COUNT = 2;
+
+    /**
+     * Count of the items which are prefetched before the first layout, when angle per item isn't known yet.
+     */
+    private static final int DEFAULT_INITIAL_PREFETCH_ITEMS_COUNT = 4;
 
     /**
      * Half of the margin from item side. Is used to calculate item scroll possibility.
@@ -54,17 +63,46 @@ class CycleLayoutManager extends RecyclerView.LayoutManager {
     private float mPreLollipopAdditionalButtonsMargin = 0;
 
     /**
-     * View cache that is used to recycler and remove all not used views in fill method.
+     * True if items are wrapped around: the first item follows the last one.
+     */
+    private boolean mEndless;
+    /**
+     * Index of the first child. Children are placed in the order of their indexes, index is equal to the adapter
+     * position without wrapping and is wrapped over the count of items into the position in the ENDLESS mode.
+     */
+    private int mFirstIndex;
+    /**
+     * View cache (by index) that is used to recycler and remove all not used views in fill method.
      */
     private SparseArray<View> mViewCache = new SparseArray<>();
     /**
-     * Angles of each item view. Used in internalScroll method.
+     * Index and angle in degrees of the anchor item. Items are placed with the equal angle between them,
+     * so angle of any item is calculated from the anchor without storing angle per item.
      */
-    private SparseArray<Double> mViewAngles;
+    private int mAnchorIndex;
+    private double mAnchorAngle;
     /**
-     * Angle that view item has per own diameter.
+     * Smallest angle that view item has per own diameter, -1 if items are not measured yet.
      */
     private double mAnglePerItem = -1;
+    /**
+     * Measured size of the item by its view type. One view of each type is measured per layout.
+     */
+    private SparseIntArray mItemSizes = new SparseIntArray();
+    /**
+     * Angles in degrees from the start of the first item to the start of each item, the last value is the angle
+     * of all items. Angle of any position and position at any angle are found without measuring the views.
+     */
+    private double[] mItemAngleOffsets = new double[1];
+    /**
+     * Angle in degrees of each item if all items have the same size, -1 otherwise. Offsets of the items aren't
+     * stored then, so the layout of the paged items doesn't depend on their count.
+     */
+    private double mUniformItemAngle = -1;
+    /**
+     * Count of the items which angles are calculated for.
+     */
+    private int mAnglesItemCount = 0;
     /**
      * Calculated radius of the cycle menu.
      */
@@ -82,10 +120,29 @@ class CycleLayoutManager extends RecyclerView.LayoutManager {
      */
     private double mAdditionalAngleOffset = CycleMenuWidget.UNDEFINED_ANGLE_VALUE;
 
-    public CycleLayoutManager(Context context, CORNER corner ) {
+    /**
+     * Animator of the roll in/out of the items. Is owned by the widget.
+     */
+    private ItemsRollAnimator mRollAnimator;
+    @Nullable
+    private OnItemsRotatedListener mOnItemsRotatedListener;
+
+    /**
+     * True if scroll rotates the whole items layer (the RecyclerView) around the corner instead of moving each item.
+     */
+    private boolean mLayerRotationEnabled;
+    /**
+     * Angle in degrees on which items layer is rotated, is less than the angle per item. Items are moved to their
+     * real places when it's reached.
+     */
+    private double mLayerRotation;
+    @Nullable
+    private RecyclerView mRecyclerView;
+
+    public CycleLayoutManager(Context context, CORNER corner, ItemsRollAnimator rollAnimator) {
         mCurrentCorner = corner;
         mPreLollipopAdditionalButtonsMargin = context.getResources().getDimensionPixelSize(R.dimen.cm_prelollipop_additional_margin);
-        mViewAngles = new SparseArray<>();
+        mRollAnimator = rollAnimator;
     }
 
     @Override
@@ -107,6 +164,49 @@ class CycleLayoutManager extends RecyclerView.LayoutManager {
         mCurrentCorner = currentCorner;
     }
 
+    void setOnItemsRotatedListener(@Nullable OnItemsRotatedListener onItemsRotatedListener) {
+        mOnItemsRotatedListener = onItemsRotatedListener;
+    }
+
+    /**
+     * Enable/disable wrapping of the items. Items are wrapped only if there are more of them than fit on the arc,
+     * so the same item isn't shown twice.
+     *
+     * @param endless true to place the first item after the last one
+     */
+    void setEndless(boolean endless) {
+        if (mEndless != endless) {
+            mEndless = endless;
+            requestLayout();
+        }
+    }
+
+    /**
+     * Enable/disable rotation of the items layer. Items are laid out with one more item on each side and scroll
+     * rotates the layer, items are moved and rebound only when the rotation reaches the angle of the item.
+     * Is used only when items are wrapped (ENDLESS), the bounded scroll moves items to check the ends.
+     *
+     * @param layerRotationEnabled true to rotate the layer
+     */
+    void setLayerRotationEnabled(boolean layerRotationEnabled) {
+        if (mLayerRotationEnabled != layerRotationEnabled) {
+            mLayerRotationEnabled = layerRotationEnabled;
+            requestLayout();
+        }
+    }
+
+    @Override
+    public void onAttachedToWindow(RecyclerView view) {
+        super.onAttachedToWindow(view);
+        mRecyclerView = view;
+    }
+
+    @Override
+    public void onDetachedFromWindow(RecyclerView view, RecyclerView.Recycler recycler) {
+        super.onDetachedFromWindow(view, recycler);
+        mRecyclerView = null;
+    }
+
     void setScrollEnabled(boolean scrollEnabled) {
         mScrollEnabled = scrollEnabled;
     }
@@ -116,18 +216,64 @@ class CycleLayoutManager extends RecyclerView.LayoutManager {
         return mCanScroll && mScrollEnabled && (mScrollIsAvailableDueToChildrenCount == null || mScrollIsAvailableDueToChildrenCount);
     }
 
+    /**
+     * Vertical scroll is the distance on which items are moved along the arc.
+     * Touch is converted into it by {@link TouchedRecyclerView}.
+     *
+     * @param degrees angle in degrees on which items should be rotated, positive to increase angles of the items
+     * @return distance of the vertical scroll
+     */
+    double getScrollDistanceForAngle(double degrees) {
+        double distance = degrees * Math.PI / 180 * getRadius();
+        //need to use upToDown calculation if the menu has bottom orientation.
+        return mCurrentCorner.isBottomSide() ? distance : -distance;
+    }
+
+    /**
+     * Prefetch the items which come into the arc next, so they are created and bound in the idle time of the frame.
+     * Items with the lower positions come from the start of the arc, with the higher positions from its end.
+     */
     @Override
-    public boolean canScrollHorizontally() {
-        return mCanScroll && mScrollEnabled && (mScrollIsAvailableDueToChildrenCount == null || mScrollIsAvailableDueToChildrenCount);
+    public void collectAdjacentPrefetchPositions(int dx, int dy, RecyclerView.State state,
+                                                 LayoutPrefetchRegistry layoutPrefetchRegistry) {
+        int childCount = getChildCount();
+        if (childCount == 0 || dy == 0 || !mScrollEnabled || mAnglePerItem <= 0) {
+            return;
+        }
+        //need to use upToDown calculation if the menu has bottom orientation.
+        boolean toStart = mCurrentCorner.isBottomSide() ? dy < 0 : dy > 0;
+        int itemCount = state.getItemCount();
+        int itemArcLength = (int) (mAnglePerItem * Math.PI / 180 * getRadius());
+        int prefetchCount = Math.abs(dy) * 2 > itemArcLength ? MAX_PREFETCH_ITEMS_COUNT : 1;
+        boolean wrapping = isWrapping();
+        int edgeIndex = toStart ? mFirstIndex : mFirstIndex + childCount - 1;
+        for (int i = 1; i <= prefetchCount; i++) {
+            int index = toStart ? edgeIndex - i : edgeIndex + i;
+            if (!wrapping && (index < 0 || index >= itemCount)) {
+                return;
+            }
+            //distance of the scroll after which the item is needed
+            layoutPrefetchRegistry.addPosition(getPositionForIndex(index), (i - 1) * itemArcLength);
+        }
     }
 
+    /**
+     * Prefetch the items which are shown by the first layout, is used when the menu is inside the scrolled list.
+     */
     @Override
-    public int scrollHorizontallyBy(int dx, RecyclerView.Recycler recycler, RecyclerView.State state) {
-        mScrollToPosition = RecyclerView.NO_POSITION;
-        if (mScrollEnabled) {
-            return internalScrollBy((mCurrentCorner == CORNER.RIGHT_TOP || mCurrentCorner == CORNER.LEFT_BOTTOM) ? dx : -dx, recycler);
+    public void collectInitialPrefetchPositions(int adapterItemCount, LayoutPrefetchRegistry layoutPrefetchRegistry) {
+        int count = mAnglePerItem > 0 ? (int) Math.ceil(90 / mAnglePerItem) + 1 : DEFAULT_INITIAL_PREFETCH_ITEMS_COUNT;
+        int firstPosition = mScrollToPosition != RecyclerView.NO_POSITION ? mScrollToPosition : 0;
+        if (mEndless) {
+            count = Math.min(count, adapterItemCount);
+        }
+        for (int index = firstPosition; index < firstPosition + count; index++) {
+            int position = mEndless && adapterItemCount > 0 ? index % adapterItemCount : index;
+            if (position >= adapterItemCount) {
+                return;
+            }
+            layoutPrefetchRegistry.addPosition(position, 0);
         }
-        return 0;
     }
 
     @Override
@@ -140,8 +286,7 @@ class CycleLayoutManager extends RecyclerView.LayoutManager {
     }
 
     private int internalScrollBy(int dScroll, RecyclerView.Recycler recycler) {
-        int childCount = getChildCount();
-        if (childCount == 0) {
+        if (getChildCount() == 0 || dScroll == 0) {
             return 0;
         }
         mScrollIsAvailableDueToChildrenCount = true;
@@ -153,25 +298,52 @@ class CycleLayoutManager extends RecyclerView.LayoutManager {
             delta = checkEndsReached(dScroll);
         }
 
-        int radius = getRadius();
         //Length of the circle of the menu.
         double circleLength = 2 * Math.PI * getRadius();
         //Approximately calculated angle that menu need to be scrolled on
         double angleToRotate = 360.0 * delta / circleLength;
+        if (mLayerRotationEnabled && isWrapping()) {
+            mLayerRotation += angleToRotate;
+            if (Math.abs(mLayerRotation) < mAnglePerItem) {
+                //items haven't crossed the edge, one rotation of the layer is enough
+                applyLayerRotation();
+                dispatchItemsRotated();
+                return mCurrentCorner.isBottomSide() ? delta : -delta;
+            }
+            angleToRotate = mLayerRotation;
+            mLayerRotation = 0;
+            applyLayerRotation();
+        }
+        //Save new angle of the items
+        mAnchorAngle += angleToRotate;
+        offsetChildrenToAngles();
+        //refill items after scroll
+        fill(recycler);
+        dispatchItemsRotated();
+        //need to use upToDown calculation if the menu has bottom orientation.
+        if (mCurrentCorner.isBottomSide()) {
+            return delta;
+        }
+        return -delta;
+    }
 
+    /**
+     * Move children to the places of their angles.
+     */
+    private void offsetChildrenToAngles() {
+        int childCount = getChildCount();
+        int radius = getRadius();
         for (int indexOfView = 0; indexOfView < childCount; indexOfView++) {
             View view = getChildAt(indexOfView);
-            int viewPosition = getPosition(view);
-            //Save new angle of the view item
-            mViewAngles.put(viewPosition, angleToRotate + mViewAngles.get(viewPosition));
 
             //current position of the view item
             double viewCenterX = view.getRight() - view.getWidth() / 2.0;
             double viewCenterY = view.getTop() + view.getHeight() / 2.0;
 
             //new position for the view item
-            double newCenterX = radius * Math.cos(mViewAngles.get(viewPosition) * Math.PI / 180);
-            double newCenterY = radius * Math.sin(mViewAngles.get(viewPosition) * Math.PI / 180);
+            double viewAngle = getViewAngle(mFirstIndex + indexOfView);
+            double newCenterX = radius * Math.cos(viewAngle * Math.PI / 180);
+            double newCenterY = radius * Math.sin(viewAngle * Math.PI / 180);
 
             if (mCurrentCorner == CORNER.RIGHT_TOP) {
                 newCenterX = getWidth() - newCenterX;
@@ -188,13 +360,49 @@ class CycleLayoutManager extends RecyclerView.LayoutManager {
             view.offsetTopAndBottom(dy);
             view.offsetLeftAndRight(dx);
         }
-        //refill items after scroll
-        fill(recycler);
-        //need to use upToDown calculation if the menu has bottom orientation.
-        if (mCurrentCorner.isBottomSide()) {
-            return delta;
+    }
+
+    /**
+     * Move rotation of the layer to the items, so layer isn't rotated.
+     */
+    private void foldLayerRotation() {
+        if (mLayerRotation == 0) {
+            return;
         }
-        return -delta;
+        mAnchorAngle += mLayerRotation;
+        mLayerRotation = 0;
+        applyLayerRotation();
+        offsetChildrenToAngles();
+    }
+
+    /**
+     * Rotate the RecyclerView around the corner and counter-rotate items, so icons stay upright.
+     */
+    private void applyLayerRotation() {
+        float rotation = getLayerViewRotation();
+        if (mRecyclerView != null) {
+            mRecyclerView.setPivotX(mCurrentCorner.isLeftSide() ? 0 : mRecyclerView.getWidth());
+            mRecyclerView.setPivotY(mCurrentCorner.isUpSide() ? 0 : mRecyclerView.getHeight());
+            mRecyclerView.setRotation(rotation);
+        }
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            getChildAt(i).setRotation(-rotation);
+        }
+    }
+
+    /**
+     * @return rotation of the layer view in degrees, angles of the items grow clockwise only in the mirrored corners
+     */
+    private float getLayerViewRotation() {
+        double rotation = mCurrentCorner.isLeftSide() == mCurrentCorner.isUpSide() ? mLayerRotation : -mLayerRotation;
+        return (float) rotation;
+    }
+
+    /**
+     * @return angle in degrees on which items are rotated by the layer
+     */
+    double getLayerRotation() {
+        return mLayerRotation;
     }
 
     /**
@@ -210,6 +418,11 @@ class CycleLayoutManager extends RecyclerView.LayoutManager {
             return 0;
         }
 
+        if (isWrapping()) {
+            //there are no ends
+            return -dy;
+        }
+
         int delta = 0;
         View firstChildView = getChildAt(0);
         View lastChildView = getChildAt(childCount - 1);
@@ -249,51 +462,103 @@ class CycleLayoutManager extends RecyclerView.LayoutManager {
     @Override
     public void onLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
         mAnglePerItem = -1;
+        if (mLayerRotation != 0) {
+            //items are laid out from the start, so rotation of the layer is dropped
+            mLayerRotation = 0;
+            applyLayerRotation();
+        }
         detachAndScrapAttachedViews(recycler);
         if (getWidth() > 0 && getHeight() > 0 && getWidth() < 10000 && getHeight() < 10000) {
             fill(recycler);
+            dispatchItemsRotated();
         }
     }
 
     public void fill(RecyclerView.Recycler recycler) {
-        View anchorView = getAnchorView();
+        int anchorChildIndex = getAnchorChildIndex();
+        View anchorView = anchorChildIndex >= 0 ? getChildAt(anchorChildIndex) : null;
+        int anchorIndex;
+        if (anchorView != null) {
+            anchorIndex = mFirstIndex + anchorChildIndex;
+        } else {
+            anchorIndex = mScrollToPosition != RecyclerView.NO_POSITION ? mScrollToPosition : 0;
+        }
         mViewCache.clear();
 
-        for (int i = 0, cnt = getChildCount(); i < cnt; i++) {
-            View view = getChildAt(i);
-            int pos = getPosition(view);
-            mViewCache.put(pos, view);
+        int childCount = getChildCount();
+        //children are ordered by their indexes
+        for (int i = 0; i < childCount; i++) {
+            mViewCache.put(mFirstIndex + i, getChildAt(i));
         }
 
         for (int i = 0; i < mViewCache.size(); i++) {
             detachView(mViewCache.valueAt(i));
         }
-        fillUp(anchorView, recycler);
-        fillDown(anchorView, recycler);
+        mFirstIndex = anchorIndex;
+        if (mAnglePerItem < 0) {
+            setupItemAngles(recycler);
+        }
+        if (anchorView != null) {
+            fillUp(anchorView, anchorIndex, recycler);
+        }
+        fillDown(anchorView != null, anchorIndex, recycler);
 
         for (int i = 0; i < mViewCache.size(); i++) {
             recycler.recycleView(mViewCache.valueAt(i));
         }
+        normalizeIndexes();
     }
 
     /**
-     * fill to up items from the anchor item
-     *
-     * @param anchorView
-     * @param recycler
+     * Keep index of the first child in the range of the item positions, so indexes stay bounded while the ENDLESS menu
+     * is rotated in one direction.
      */
-    private void fillUp(@Nullable View anchorView, RecyclerView.Recycler recycler) {
-        int anchorPos;
-        if (anchorView != null) {
-            anchorPos = getPosition(anchorView);
-        } else {
+    private void normalizeIndexes() {
+        int itemCount = getItemCount();
+        if (!isWrapping() || itemCount == 0) {
             return;
         }
+        int shift = mFirstIndex - getPositionForIndex(mFirstIndex);
+        mFirstIndex -= shift;
+        mAnchorIndex -= shift;
+    }
+
+    /**
+     * @return true if the items are wrapped around in this layout
+     */
+    boolean isWrapping() {
+        //views can't be shown twice, so there should be more items than the arc shows
+        return mEndless && mAnglePerItem > 0 && getItemCount() > Math.ceil(90 / mAnglePerItem) + 2 + 2 * getOverscanItemsCount();
+    }
 
-        int pos = anchorPos - 1;
-        if (mScrollToPosition != RecyclerView.NO_POSITION) {
-            pos = mScrollToPosition - 1;
+    /**
+     * @return count of the items laid out beyond each edge of the arc, so the rotated layer doesn't show empty places
+     */
+    private int getOverscanItemsCount() {
+        return mLayerRotationEnabled ? 1 : 0;
+    }
+
+    /**
+     * @param index index of the item in the layout
+     * @return adapter position of the item
+     */
+    private int getPositionForIndex(int index) {
+        if (!isWrapping()) {
+            return index;
         }
+        int itemCount = getItemCount();
+        return (index % itemCount + itemCount) % itemCount;
+    }
+
+    /**
+     * fill to up items from the anchor item
+     *
+     * @param anchorView
+     * @param anchorIndex index of the anchor item
+     * @param recycler
+     */
+    private void fillUp(View anchorView, int anchorIndex, RecyclerView.Recycler recycler) {
+        int pos = anchorIndex - 1;
         boolean canFillUp;
         int radius = getRadius();
         double angle;
@@ -302,7 +567,12 @@ class CycleLayoutManager extends RecyclerView.LayoutManager {
         } else {
             canFillUp = anchorView.getRight() < getWidth();
         }
-        angle = mViewAngles.get(anchorPos) + mAnglePerItem;
+        int overscan = getOverscanItemsCount();
+        if (!canFillUp && overscan > 0 && isWrapping()) {
+            canFillUp = true;
+            overscan--;
+        }
+        angle = getViewAngle(pos);
         //Can be used View.MeasureSpec.AT_MOST because items is floating action buttons
         final int widthSpec = View.MeasureSpec.makeMeasureSpec(getWidth(), View.MeasureSpec.AT_MOST);
         final int heightSpec = View.MeasureSpec.makeMeasureSpec(getHeight(), View.MeasureSpec.AT_MOST);
@@ -312,12 +582,12 @@ class CycleLayoutManager extends RecyclerView.LayoutManager {
         int right;
         int left;
 
-        while (canFillUp && pos >= 0) {
+        while (canFillUp && (pos >= 0 || isWrapping())) {
             View view = mViewCache.get(pos);
 
             if (view == null) {
-                mViewAngles.put(pos, angle);
-                view = recycler.getViewForPosition(pos);
+                setViewAngle(pos, angle);
+                view = recycler.getViewForPosition(getPositionForIndex(pos));
                 addView(view, 0);
                 measureChildWithMargins(view, widthSpec, heightSpec);
                 int decoratedMeasuredWidth = getDecoratedMeasuredWidth(view);
@@ -347,13 +617,16 @@ class CycleLayoutManager extends RecyclerView.LayoutManager {
                 }
 
                 layoutDecorated(view, left, top, right, bottom);
+                applyRollRotation(view, mRollAnimator.isRolledIn() ? 0 : 1);
 
             } else {
-                attachView(view);
+                //keep children ordered by their indexes
+                attachView(view, 0);
                 mViewCache.remove(pos);
                 left = view.getLeft();
                 right = view.getRight();
             }
+            mFirstIndex = pos;
             pos--;
             //Check if top not reached
             if (mCurrentCorner.isLeftSide()) {
@@ -361,7 +634,11 @@ class CycleLayoutManager extends RecyclerView.LayoutManager {
             } else if (mCurrentCorner.isRightSide()) {
                 canFillUp = right < getWidth();
             }
-            angle += mAnglePerItem;
+            if (!canFillUp && overscan > 0 && isWrapping()) {
+                canFillUp = true;
+                overscan--;
+            }
+            angle = getViewAngle(pos);
 
         }
     }
@@ -369,71 +646,41 @@ class CycleLayoutManager extends RecyclerView.LayoutManager {
     /**
      * fill to up down from the anchor item
      *
-     * @param anchorView
+     * @param hasAnchor   true if anchor item is laid out, false if the items are laid out from the start
+     * @param anchorIndex index of the anchor item or of the first item if there is no anchor
      * @param recycler
      */
-    private void fillDown(@Nullable View anchorView, RecyclerView.Recycler recycler) {
-
-        int anchorPos = 0;
-        if (anchorView != null) {
-            anchorPos = getPosition(anchorView);
-        }
-        int pos = anchorPos;
-        if (mScrollToPosition != RecyclerView.NO_POSITION) {
-            pos = mScrollToPosition;
-        }
+    private void fillDown(boolean hasAnchor, int anchorIndex, RecyclerView.Recycler recycler) {
+        int pos = anchorIndex;
         boolean canFillDown = true;
+        int overscan = getOverscanItemsCount();
         int itemCount = getItemCount();
         //Can be used View.MeasureSpec.AT_MOST because items is floating action buttons
         final int widthSpec = View.MeasureSpec.makeMeasureSpec(getWidth(), View.MeasureSpec.AT_MOST);
         final int heightSpec = View.MeasureSpec.makeMeasureSpec(getHeight(), View.MeasureSpec.AT_MOST);
 
-        double angle = 90;
-        if (anchorView != null) {
-            angle = mViewAngles.get(pos);
+        if (!hasAnchor && mAnglePerItem > 0) {
+            //first item is placed near the vertical side
+            if (mAdditionalAngleOffset < -999) {
+                setViewAngle(pos, 90 - getItemSpan(pos) / 2.0);
+            } else {
+                setViewAngle(pos, 90 - mAdditionalAngleOffset);
+            }
         }
+        double angle = getViewAngle(pos);
         int left;
         int top;
         int right;
         int bottom;
-        while (canFillDown && pos < itemCount) {
+        while (canFillDown && (pos < itemCount || isWrapping())) {
             View view = mViewCache.get(pos);
             if (view == null) {
-                view = recycler.getViewForPosition(pos);
+                view = recycler.getViewForPosition(getPositionForIndex(pos));
                 addView(view);
                 measureChildWithMargins(view, widthSpec, heightSpec);
                 int decoratedMeasuredWidth = getDecoratedMeasuredWidth(view);
                 int decoratedMeasuredHeight = getDecoratedMeasuredHeight(view);
-                if (mAnglePerItem < 0) { //if not initialized
-                    //calculate and set radius of the menu
-                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                        setRadius((getWidth() > getHeight() ? getHeight() : getWidth()) - decoratedMeasuredHeight * 4 / 5);
-                    } else {
-                        setRadius((getWidth() > getHeight() ? getHeight() : getWidth()) - decoratedMeasuredHeight / 2);
-                    }
-                    //Calculate margins between the items.
-                    double circleLength = 2 * Math.PI * getRadius();
-                    double anglePerLength;
-                    double anglePerLengthWithMargins;
-                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                        anglePerLength = 360.0 * (decoratedMeasuredHeight) / circleLength;
-                        anglePerLengthWithMargins = anglePerLength * SCALING_COEFFICIENT;
-                        mMarginAngle = (anglePerLengthWithMargins - anglePerLength) / 2.0;
-                        mHalfAdditionalMargin = (int) ((decoratedMeasuredHeight * SCALING_COEFFICIENT - decoratedMeasuredHeight) / 2.0);
-                    } else {
-                        //In preLollipop android floatingActionButton has additional margin.
-                        anglePerLength = 360.0 * (decoratedMeasuredHeight - mPreLollipopAdditionalButtonsMargin * 2) / circleLength;
-                        anglePerLengthWithMargins = 360.0 * (decoratedMeasuredHeight - mPreLollipopAdditionalButtonsMargin * 2 / 1.5f) / circleLength;
-                        mMarginAngle = (anglePerLengthWithMargins - anglePerLength) / 2.0;
-                    }
-                    if (mAdditionalAngleOffset < -999) {
-                        angle -= anglePerLengthWithMargins / 2.0;
-                    } else {
-                        angle -= mAdditionalAngleOffset;
-                    }
-                    mAnglePerItem = anglePerLengthWithMargins;
-                }
-                mViewAngles.put(pos, angle);
+                setViewAngle(pos, angle);
                 int xDistance = (int) (getRadius() * Math.cos(angle * Math.PI / 180));
                 int yDistance = (int) (getRadius() * Math.sin(angle * Math.PI / 180));
 
@@ -455,6 +702,7 @@ class CycleLayoutManager extends RecyclerView.LayoutManager {
                 }
 
                 layoutDecorated(view, left, top, right, bottom);
+                applyRollRotation(view, mRollAnimator.isRolledIn() ? 0 : 1);
             } else {
 
                 attachView(view);
@@ -468,23 +716,138 @@ class CycleLayoutManager extends RecyclerView.LayoutManager {
             } else {
                 canFillDown = bottom < getHeight();
             }
+            if (!canFillDown && overscan > 0 && isWrapping()) {
+                canFillDown = true;
+                overscan--;
+            }
             pos++;
-            if (pos == itemCount && mScrollIsAvailableDueToChildrenCount == null) {
+            if (pos == itemCount && mScrollIsAvailableDueToChildrenCount == null && !isWrapping()) {
                 mScrollIsAvailableDueToChildrenCount = !canFillDown;
             }
-            angle -= mAnglePerItem;
+            angle = getViewAngle(pos);
+        }
+    }
+
+    /**
+     * Measure one view of each view type, calculate radius of the menu by the biggest item and angle of each item
+     * by its size. Angles are summed once, so scroll doesn't measure the items.
+     */
+    private void setupItemAngles(RecyclerView.Recycler recycler) {
+        int itemCount = getItemCount();
+        RecyclerView.Adapter adapter = mRecyclerView != null ? mRecyclerView.getAdapter() : null;
+        if (itemCount == 0 || adapter == null) {
+            return;
+        }
+        //Can be used View.MeasureSpec.AT_MOST because items is floating action buttons
+        final int widthSpec = View.MeasureSpec.makeMeasureSpec(getWidth(), View.MeasureSpec.AT_MOST);
+        final int heightSpec = View.MeasureSpec.makeMeasureSpec(getHeight(), View.MeasureSpec.AT_MOST);
+        mItemSizes.clear();
+        int maxItemSize = 0;
+        //if items have the same size only the first of them is measured
+        boolean uniform = adapter instanceof RecyclerMenuAdapter && ((RecyclerMenuAdapter) adapter).hasUniformItemSizes();
+        int measuredCount = uniform ? 1 : itemCount;
+        for (int position = 0; position < measuredCount; position++) {
+            int viewType = adapter.getItemViewType(position);
+            if (mItemSizes.indexOfKey(viewType) >= 0) {
+                continue;
+            }
+            View view = recycler.getViewForPosition(position);
+            measureChildWithMargins(view, widthSpec, heightSpec);
+            int itemSize = getDecoratedMeasuredHeight(view);
+            recycler.recycleView(view);
+            mItemSizes.put(viewType, itemSize);
+            maxItemSize = Math.max(maxItemSize, itemSize);
+        }
+        //calculate and set radius of the menu
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            setRadius((getWidth() > getHeight() ? getHeight() : getWidth()) - maxItemSize * 4 / 5);
+        } else {
+            setRadius((getWidth() > getHeight() ? getHeight() : getWidth()) - maxItemSize / 2);
+        }
+        //Calculate margins between the items.
+        double circleLength = 2 * Math.PI * getRadius();
+        int firstItemSize = mItemSizes.get(adapter.getItemViewType(0));
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            mMarginAngle = 360.0 * firstItemSize / circleLength * (SCALING_COEFFICIENT - 1) / 2.0;
+            mHalfAdditionalMargin = (int) ((firstItemSize * SCALING_COEFFICIENT - firstItemSize) / 2.0);
+        } else {
+            //In preLollipop android floatingActionButton has additional margin.
+            mMarginAngle = 360.0 * (mPreLollipopAdditionalButtonsMargin * 2 - mPreLollipopAdditionalButtonsMargin * 2 / 1.5f) / circleLength / 2.0;
+        }
+        mAnglesItemCount = itemCount;
+        if (uniform) {
+            mUniformItemAngle = getItemAngle(firstItemSize, circleLength);
+            mAnglePerItem = mUniformItemAngle;
+            return;
+        }
+        mUniformItemAngle = -1;
+        if (mItemAngleOffsets.length != itemCount + 1) {
+            mItemAngleOffsets = new double[itemCount + 1];
+        }
+        mAnglePerItem = Double.MAX_VALUE;
+        for (int position = 0; position < itemCount; position++) {
+            double itemAngle = getItemAngle(mItemSizes.get(adapter.getItemViewType(position)), circleLength);
+            mItemAngleOffsets[position + 1] = mItemAngleOffsets[position] + itemAngle;
+            mAnglePerItem = Math.min(mAnglePerItem, itemAngle);
+        }
+    }
+
+    /**
+     * @return angle in degrees which item of the size takes on the circle including margins
+     */
+    private double getItemAngle(int itemSize, double circleLength) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            return 360.0 * itemSize / circleLength * SCALING_COEFFICIENT;
+        }
+        //In preLollipop android floatingActionButton has additional margin.
+        return 360.0 * (itemSize - mPreLollipopAdditionalButtonsMargin * 2 / 1.5f) / circleLength;
+    }
+
+    /**
+     * @param index index of the item in the layout
+     * @return angle in degrees which the item takes on the arc
+     */
+    private double getItemSpan(int index) {
+        int position = getPositionForIndex(index);
+        if (position < 0 || position >= mAnglesItemCount) {
+            return mAnglePerItem;
+        }
+        return getItemStartOffset(position + 1) - getItemStartOffset(position);
+    }
+
+    /**
+     * @param position adapter position of the item, count of the items for the angle of all items
+     * @return angle in degrees from the start of the first item to the start of the item
+     */
+    private double getItemStartOffset(int position) {
+        return mUniformItemAngle > 0 ? position * mUniformItemAngle : mItemAngleOffsets[position];
+    }
+
+    /**
+     * @param index index of the item in the layout, wrapped items continue after the angle of all items
+     * @return angle in degrees from the start of the first item to the center of the item
+     */
+    private double getItemCenterOffset(int index) {
+        int itemCount = mAnglesItemCount;
+        if (itemCount <= 0) {
+            return index * mAnglePerItem;
         }
+        int turns = index >= 0 ? index / itemCount : (index + 1) / itemCount - 1;
+        int position = index - turns * itemCount;
+        return turns * getItemStartOffset(itemCount) + (getItemStartOffset(position) + getItemStartOffset(position + 1)) / 2.0;
     }
 
     /**
      * Getting anchor view for the filling.
      * The first partially visible item
+     *
+     * @return index of the anchor view in the children or -1 if there are no children
      */
-    private View getAnchorView() {
+    private int getAnchorChildIndex() {
         View anchorView;
         int childCount = getChildCount();
         if (childCount == 0) {
-            return null;
+            return -1;
         }
         int anchorViewPosition = 0;
         if (mCurrentCorner.isLeftSide()) {
@@ -499,7 +862,7 @@ class CycleLayoutManager extends RecyclerView.LayoutManager {
             } while (anchorView.getLeft() > getWidth() && anchorViewPosition < childCount);
         }
 
-        return anchorView;
+        return anchorViewPosition - 1;
     }
 
     @Override
@@ -546,11 +909,90 @@ class CycleLayoutManager extends RecyclerView.LayoutManager {
      */
     double getCurrentItemsAngleOffset() {
         if (getChildCount() > 0) {
-            return 90 - mViewAngles.get(getPosition(getChildAt(0)));
+            return 90 - getViewAngle(mFirstIndex) - mLayerRotation;
         }
         return 0;
     }
 
+    /**
+     * @return angle in degrees between the neighbour items or -1 if items are not laid out yet
+     */
+    double getAnglePerItem() {
+        return mAnglePerItem;
+    }
+
+    /**
+     * @param index index of the item in the layout
+     * @return angle in degrees of the item
+     */
+    private double getViewAngle(int index) {
+        return mAnchorAngle - (getItemCenterOffset(index) - getItemCenterOffset(mAnchorIndex));
+    }
+
+    /**
+     * @param position adapter position of the item
+     * @return current angle in degrees of the center of the item, in the ENDLESS mode is one of the angles of the item
+     */
+    double getPositionAngle(int position) {
+        return getViewAngle(position) + mLayerRotation;
+    }
+
+    /**
+     * @param position adapter position of the item
+     * @return angle in degrees which the item takes on the arc
+     */
+    double getPositionSpan(int position) {
+        return getItemSpan(position);
+    }
+
+    /**
+     * @return angle in degrees of all items
+     */
+    double getItemsAngle() {
+        return getItemStartOffset(mAnglesItemCount);
+    }
+
+    /**
+     * Find item by the binary search in the angles of the items.
+     *
+     * @param angle angle in degrees on the arc
+     * @return adapter position of the item at the angle or {@link RecyclerView#NO_POSITION} if there is no item
+     */
+    int getPositionAtAngle(double angle) {
+        int itemCount = mAnglesItemCount;
+        double itemsAngle = getItemsAngle();
+        if (mAnglePerItem <= 0 || itemCount != getItemCount() || itemsAngle <= 0) {
+            return RecyclerView.NO_POSITION;
+        }
+        //angle from the start of the first item
+        double offset = getItemCenterOffset(mAnchorIndex) + mAnchorAngle + mLayerRotation - angle;
+        if (isWrapping()) {
+            offset = (offset % itemsAngle + itemsAngle) % itemsAngle;
+        } else if (offset < 0 || offset >= itemsAngle) {
+            return RecyclerView.NO_POSITION;
+        }
+        int position;
+        if (mUniformItemAngle > 0) {
+            position = (int) (offset / mUniformItemAngle);
+        } else {
+            int index = Arrays.binarySearch(mItemAngleOffsets, 0, itemCount + 1, offset);
+            //start of the item or insertion point after the start of the item
+            position = index >= 0 ? index : -index - 2;
+        }
+        return Math.min(Math.max(position, 0), itemCount - 1);
+    }
+
+    private void setViewAngle(int index, double angle) {
+        mAnchorIndex = index;
+        mAnchorAngle = angle;
+    }
+
+    private void dispatchItemsRotated() {
+        if (mOnItemsRotatedListener != null) {
+            mOnItemsRotatedListener.onItemsRotated();
+        }
+    }
+
     /**
      * Set shift angle of the items in degree.
      */
@@ -566,128 +1008,38 @@ class CycleLayoutManager extends RecyclerView.LayoutManager {
     }
 
 
-    void rollInItemsWithAnimation(final OnCompleteCallback callback) {
-        final int childCount = getChildCount();
-        if (childCount == 0) {
-            callback.onComplete();
-            return;
-        }
-        int overshootCoefficient = 6;
-        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
-            overshootCoefficient = 6;
-        }
-        int duration = 300;
-
-        int startOffset = duration / childCount;
+    @Override
+    public int getRollItemsCount() {
+        return getChildCount();
+    }
 
+    @Override
+    public void onRollProgressChanged() {
+        //items are rolled around the corner from their real places
+        foldLayerRotation();
+        int childCount = getChildCount();
         for (int i = 0; i < childCount; i++) {
-            final View view = getChildAt(i);
-            float animationRotateAnchorX = 0;
-            float animationRotateAnchorY = 0;
-            float startDegree = 100;
-            float overshootDegree = (float) ((i + overshootCoefficient) * mMarginAngle * 2f);
-            if (mCurrentCorner == CORNER.LEFT_TOP) {
-                startDegree = -100;
-                animationRotateAnchorX = -view.getLeft();
-                animationRotateAnchorY = -view.getTop();
-            } else if (mCurrentCorner == CORNER.RIGHT_TOP) {
-                startDegree = 100;
-                overshootDegree = -overshootDegree;
-                animationRotateAnchorX = getWidth() - view.getLeft();
-                animationRotateAnchorY = -view.getTop();
-            } else if (mCurrentCorner == CORNER.LEFT_BOTTOM) {
-                startDegree = 100;
-                overshootDegree = -overshootDegree;
-                animationRotateAnchorX = -view.getLeft();
-                animationRotateAnchorY = getHeight() - view.getTop();
-            } else if (mCurrentCorner == CORNER.RIGHT_BOTTOM) {
-                startDegree = -100;
-                animationRotateAnchorX = getWidth() - view.getLeft();
-                animationRotateAnchorY = getHeight() - view.getTop();
-            }
-
-            RotateAnimation rotateAnimation = new RotateAnimation(startDegree, overshootDegree, Animation.ABSOLUTE, animationRotateAnchorX, Animation.ABSOLUTE, animationRotateAnchorY);
-            rotateAnimation.setDuration(duration);
-            rotateAnimation.setStartOffset(startOffset * i / 2);
-            rotateAnimation.setFillBefore(true);
-            rotateAnimation.setInterpolator(new DecelerateInterpolator());
-
-            final RotateAnimation backRotateAnimation = new RotateAnimation(overshootDegree, 0, Animation.ABSOLUTE, animationRotateAnchorX, Animation.ABSOLUTE, animationRotateAnchorY);
-            backRotateAnimation.setDuration((i + overshootCoefficient) * startOffset / 2);
-            backRotateAnimation.setFillBefore(true);
-            backRotateAnimation.setInterpolator(new LinearInterpolator());
-
-            backRotateAnimation.setStartOffset((getChildCount() - i - 1) * startOffset / 2);
-            final int finalI = i;
-            rotateAnimation.setAnimationListener(new AnimationListenerAdapter() {
-                @Override
-                public void onAnimationEnd(Animation animation) {
-                    if (finalI == childCount - 1) {
-                        backRotateAnimation.setAnimationListener(new AnimationListenerAdapter() {
-
-                            @Override
-                            public void onAnimationEnd(Animation animation) {
-                                callback.onComplete();
-                            }
-                        });
-                    }
-                    view.startAnimation(backRotateAnimation);
-                }
-            });
-            view.startAnimation(rotateAnimation);
+            applyRollRotation(getChildAt(i), mRollAnimator.getItemOutFraction(i, childCount));
         }
     }
 
-    void rollOutItemsWithAnimation(final OnCompleteCallback callback) {
-        if (getChildCount() == 0) {
-            callback.onComplete();
+    /**
+     * Rotate item around the corner of the menu.
+     *
+     * @param view        item to rotate
+     * @param outFraction 0 - item is in its place, 1 - item is out of the circle
+     */
+    private void applyRollRotation(View view, float outFraction) {
+        if (outFraction == 0) {
+            //icon is kept upright while the items layer is rotated
+            view.setPivotX(view.getWidth() / 2f);
+            view.setPivotY(view.getHeight() / 2f);
+            view.setRotation(-getLayerViewRotation());
             return;
         }
-        int duration = 300;
-
-        int startOffset = 50;
-        for (int i = getChildCount() - 1; i >= 0; i--) {
-
-            final View view = getChildAt(i);
-            view.clearAnimation();
-            float animationRotateAnchorX = 0;
-            float animationRotateAnchorY = 0;
-            float overshootDegree = 0;
-            if (mCurrentCorner == CORNER.LEFT_TOP) {
-                overshootDegree = -100;
-                animationRotateAnchorX = -view.getLeft();
-                animationRotateAnchorY = -view.getTop();
-            } else if (mCurrentCorner == CORNER.RIGHT_TOP) {
-                overshootDegree = 100;
-                animationRotateAnchorX = getWidth() - view.getLeft();
-                animationRotateAnchorY = -view.getTop();
-            } else if (mCurrentCorner == CORNER.LEFT_BOTTOM) {
-                overshootDegree = 100;
-                animationRotateAnchorX = -view.getLeft();
-                animationRotateAnchorY = getHeight() - view.getTop();
-            } else if (mCurrentCorner == CORNER.RIGHT_BOTTOM) {
-                overshootDegree = -100;
-                animationRotateAnchorX = getWidth() - view.getLeft();
-                animationRotateAnchorY = getHeight() - view.getTop();
-            }
-
-            RotateAnimation rotateAnimation = new RotateAnimation(0, overshootDegree, Animation.ABSOLUTE, animationRotateAnchorX, Animation.ABSOLUTE, animationRotateAnchorY);
-            rotateAnimation.setDuration(duration);
-            rotateAnimation.setStartOffset(startOffset * (getChildCount() - i - 1));
-            rotateAnimation.setFillAfter(true);
-            rotateAnimation.setInterpolator(new DecelerateInterpolator());
-
-            if (i == 0) {
-                rotateAnimation.setAnimationListener(new AnimationListenerAdapter() {
-                    @Override
-                    public void onAnimationEnd(Animation animation) {
-                        callback.onComplete();
-                    }
-                });
-            }
-            view.startAnimation(rotateAnimation);
-        }
-
+        view.setPivotX((mCurrentCorner.isLeftSide() ? 0 : getWidth()) - view.getLeft());
+        view.setPivotY((mCurrentCorner.isUpSide() ? 0 : getHeight()) - view.getTop());
+        view.setRotation(ItemsRollAnimator.getOutDegree(mCurrentCorner) * outFraction);
     }
 
     @Override
@@ -695,10 +1047,4 @@ class CycleLayoutManager extends RecyclerView.LayoutManager {
         mScrollToPosition = position;
         requestLayout();
     }
-
-    interface OnCompleteCallback {
-
-        void onComplete();
-
-    }
 }
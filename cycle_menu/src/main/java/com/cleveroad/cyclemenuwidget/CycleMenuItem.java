@@ -1,6 +1,8 @@
 package com.cleveroad.cyclemenuwidget;
 
 import android.graphics.drawable.Drawable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 /**
  * Model class for menu items
@@ -8,10 +10,34 @@ import android.graphics.drawable.Drawable;
 public class CycleMenuItem {
     private Drawable mIcon;
     private int mId;
+    private CycleMenuWidget.ITEM_SIZE mSize;
+    private CharSequence mLabel;
 
     public CycleMenuItem(int id, Drawable icon) {
+        this(id, icon, CycleMenuWidget.ITEM_SIZE.MINI);
+    }
+
+    /**
+     * @param id   id of the item
+     * @param icon icon of the item
+     * @param size size of the item button, items of different sizes take different angles on the menu arc
+     */
+    public CycleMenuItem(int id, Drawable icon, @NonNull CycleMenuWidget.ITEM_SIZE size) {
+        this(id, icon, size, null);
+    }
+
+    /**
+     * @param id    id of the item
+     * @param icon  icon of the item
+     * @param size  size of the item button
+     * @param label label which is shown next to the item if labels are enabled,
+     *              see {@link CycleMenuWidget#setItemLabelsEnabled(boolean)}
+     */
+    public CycleMenuItem(int id, Drawable icon, @NonNull CycleMenuWidget.ITEM_SIZE size, @Nullable CharSequence label) {
         mId = id;
         mIcon = icon;
+        mSize = size;
+        mLabel = label;
     }
 
     public int getId() {
@@ -22,4 +48,14 @@ public class CycleMenuItem {
         return mIcon;
     }
 
+    @NonNull
+    public CycleMenuWidget.ITEM_SIZE getSize() {
+        return mSize;
+    }
+
+    @Nullable
+    public CharSequence getLabel() {
+        return mLabel;
+    }
+
 }
@@ -0,0 +1,108 @@
+package com.cleveroad.cyclemenuwidget;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Menu items which can be updated from any thread. Each update publishes the new immutable snapshot of the items,
+ * menus bound to the model swap to the latest snapshot on the main thread. Updates which come before
+ * the menus are notified are coalesced into one notification.
+ * Model can be shared by a few menus, see {@link CycleMenuWidget#setMenuItemsModel(CycleMenuItemsModel)}.
+ */
+public class CycleMenuItemsModel {
+
+    /**
+     * Is notified on the main thread.
+     */
+    interface OnItemsChangedListener {
+
+        /**
+         * @param items the latest snapshot of the items, is immutable
+         */
+        void onItemsChanged(List<CycleMenuItem> items);
+    }
+
+    private final Object mLock = new Object();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicBoolean mDispatchScheduled = new AtomicBoolean(false);
+    private volatile List<CycleMenuItem> mItems = Collections.emptyList();
+    /**
+     * Listeners are accessed only from the main thread.
+     */
+    private final List<OnItemsChangedListener> mListeners = new ArrayList<>();
+    /**
+     * Snapshot which listeners were notified about.
+     */
+    private List<CycleMenuItem> mDispatchedItems = mItems;
+
+    private final Runnable mDispatchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            //flag is cleared before reading the items, so update which comes now schedules the next dispatch
+            mDispatchScheduled.set(false);
+            List<CycleMenuItem> items = mItems;
+            if (items == mDispatchedItems) {
+                return;
+            }
+            mDispatchedItems = items;
+            for (int i = mListeners.size() - 1; i >= 0; i--) {
+                mListeners.get(i).onItemsChanged(items);
+            }
+        }
+    };
+
+    /**
+     * Replace all items. Can be called from any thread.
+     *
+     * @param items new items
+     */
+    public void setItems(@NonNull Collection<CycleMenuItem> items) {
+        publish(new ArrayList<>(items));
+    }
+
+    /**
+     * Add items after the current ones. Can be called from any thread.
+     *
+     * @param items items to add
+     */
+    public void addItems(@NonNull Collection<CycleMenuItem> items) {
+        synchronized (mLock) {
+            List<CycleMenuItem> newItems = new ArrayList<>(mItems.size() + items.size());
+            newItems.addAll(mItems);
+            newItems.addAll(items);
+            publish(newItems);
+        }
+    }
+
+    /**
+     * @return the latest snapshot of the items, is immutable
+     */
+    @NonNull
+    public List<CycleMenuItem> getItems() {
+        return mItems;
+    }
+
+    void addListener(OnItemsChangedListener listener) {
+        mListeners.add(listener);
+    }
+
+    void removeListener(OnItemsChangedListener listener) {
+        mListeners.remove(listener);
+    }
+
+    private void publish(List<CycleMenuItem> items) {
+        synchronized (mLock) {
+            mItems = Collections.unmodifiableList(items);
+        }
+        if (mDispatchScheduled.compareAndSet(false, true)) {
+            mMainHandler.post(mDispatchRunnable);
+        }
+    }
+}
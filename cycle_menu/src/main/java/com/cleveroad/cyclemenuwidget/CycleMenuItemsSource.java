@@ -0,0 +1,43 @@
+package com.cleveroad.cyclemenuwidget;
+
+import android.support.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * Source of the menu items which are loaded by pages when the menu comes to them. Is used for the menus with
+ * thousands of items: only a few pages are kept in memory, items of the pages which aren't loaded yet are shown
+ * as placeholders. All items of the source are shown as {@link CycleMenuWidget.ITEM_SIZE#MINI} buttons.
+ */
+public interface CycleMenuItemsSource {
+
+    /**
+     * Is called on the main thread.
+     *
+     * @return count of all items
+     */
+    int getItemsCount();
+
+    /**
+     * Load items of the page. Is called on the background thread, so icons should be loaded here.
+     * If loading fails method should throw an unchecked exception: the failure is logged, items of the page stay
+     * placeholders and the page is requested again when its items are bound next time.
+     *
+     * @param start position of the first item of the page
+     * @param count count of the items of the page, is less at the end of the items
+     * @return items of the page
+     */
+    @NonNull
+    List<CycleMenuItem> loadItems(int start, int count);
+
+    /**
+     * Find the item by its id, the item doesn't need to be loaded. Is called on the main thread
+     * by {@link CycleMenuWidget#scrollToItemId(int)} and {@link CycleMenuWidget#smoothRotateToItemId(int)},
+     * so it shouldn't load the items.
+     *
+     * @param itemId id of the item
+     * @return position of the item or {@link android.support.v7.widget.RecyclerView#NO_POSITION} if there is no item
+     * with the id
+     */
+    int getPositionForId(int itemId);
+}
@@ -0,0 +1,199 @@
+package com.cleveroad.cyclemenuwidget;
+
+import android.support.v7.widget.RecyclerView;
+
+import java.util.Arrays;
+
+/**
+ * States of the menus in the recycled rows, keyed by the stable key of the row. Keeps position and angle offset
+ * of the first item and open state of the menu in primitive arrays of the fixed capacity: when registry is full
+ * the state of the least recently used row is dropped, so memory stays bounded for the endless lists.
+ * Menu is bound to its row by {@link CycleMenuWidget#bindState(CycleMenuStateRegistry, long)}.
+ * Is accessed only from the main thread.
+ */
+public class CycleMenuStateRegistry {
+
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private long[] mKeys;
+    private int[] mPositions;
+    private double[] mAngleOffsets;
+    private boolean[] mOpenStates;
+    /**
+     * Access stamp of each state, the state with the least stamp is dropped first.
+     */
+    private long[] mAccessStamps;
+    private long mAccessCounter = 0;
+    private int mSize = 0;
+
+    public CycleMenuStateRegistry() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity max count of the kept states, should be greater than visible rows count
+     */
+    public CycleMenuStateRegistry(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity should be positive, but was " + capacity + ".");
+        }
+        mKeys = new long[capacity];
+        mPositions = new int[capacity];
+        mAngleOffsets = new double[capacity];
+        mOpenStates = new boolean[capacity];
+        mAccessStamps = new long[capacity];
+    }
+
+    /**
+     * Save the state of the row. If registry is full the least recently used state is dropped.
+     *
+     * @param key         stable key of the row
+     * @param position    position of the first item
+     * @param angleOffset angle offset of the first item in degrees
+     * @param open        true if menu is open
+     */
+    public void put(long key, int position, double angleOffset, boolean open) {
+        int index = obtainIndex(key);
+        mPositions[index] = position;
+        mAngleOffsets[index] = angleOffset;
+        mOpenStates[index] = open;
+    }
+
+    /**
+     * Save the open state of the row, position of the row is kept.
+     *
+     * @param key  stable key of the row
+     * @param open true if menu is open
+     */
+    public void putOpen(long key, boolean open) {
+        int index = indexOf(key);
+        if (index < 0) {
+            put(key, RecyclerView.NO_POSITION, CycleMenuWidget.UNDEFINED_ANGLE_VALUE, open);
+            return;
+        }
+        touch(index);
+        mOpenStates[index] = open;
+    }
+
+    /**
+     * @param key stable key of the row
+     * @return true if the state of the row is kept
+     */
+    public boolean contains(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @param key stable key of the row
+     * @return position of the first item or {@link RecyclerView#NO_POSITION} if the state isn't kept
+     */
+    public int getPosition(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return RecyclerView.NO_POSITION;
+        }
+        touch(index);
+        return mPositions[index];
+    }
+
+    /**
+     * @param key stable key of the row
+     * @return angle offset of the first item or {@link CycleMenuWidget#UNDEFINED_ANGLE_VALUE} if the state isn't kept
+     */
+    public double getAngleOffset(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return CycleMenuWidget.UNDEFINED_ANGLE_VALUE;
+        }
+        touch(index);
+        return mAngleOffsets[index];
+    }
+
+    /**
+     * @param key         stable key of the row
+     * @param defaultOpen value which is returned if the state isn't kept
+     * @return true if menu is open
+     */
+    public boolean isOpen(long key, boolean defaultOpen) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return defaultOpen;
+        }
+        touch(index);
+        return mOpenStates[index];
+    }
+
+    /**
+     * Drop the state of the row.
+     *
+     * @param key stable key of the row
+     */
+    public void remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return;
+        }
+        //the last state is moved to the free place
+        int last = mSize - 1;
+        mKeys[index] = mKeys[last];
+        mPositions[index] = mPositions[last];
+        mAngleOffsets[index] = mAngleOffsets[last];
+        mOpenStates[index] = mOpenStates[last];
+        mAccessStamps[index] = mAccessStamps[last];
+        mSize--;
+    }
+
+    public void clear() {
+        mSize = 0;
+        Arrays.fill(mAccessStamps, 0);
+    }
+
+    /**
+     * @return count of the kept states
+     */
+    public int size() {
+        return mSize;
+    }
+
+    public int getCapacity() {
+        return mKeys.length;
+    }
+
+    /**
+     * Capacity is small and states are looked up once per bind, so keys are searched without the hash table.
+     */
+    private int indexOf(long key) {
+        for (int i = 0; i < mSize; i++) {
+            if (mKeys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return index of the state of the key, new state takes a free place or the place of the least recently used one
+     */
+    private int obtainIndex(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            if (mSize < mKeys.length) {
+                index = mSize++;
+            } else {
+                index = 0;
+                for (int i = 1; i < mSize; i++) {
+                    if (mAccessStamps[i] < mAccessStamps[index]) {
+                        index = i;
+                    }
+                }
+            }
+            mKeys[index] = key;
+        }
+        touch(index);
+        return index;
+    }
+
+    private void touch(int index) {
+        mAccessStamps[index] = ++mAccessCounter;
+    }
+}
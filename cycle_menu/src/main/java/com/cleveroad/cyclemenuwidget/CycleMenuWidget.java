@@ -2,11 +2,10 @@ package com.cleveroad.cyclemenuwidget;
 
 import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
-import android.animation.AnimatorSet;
-import android.animation.ObjectAnimator;
 import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.ColorStateList;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
@@ -19,16 +18,28 @@ import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.Shader;
 import android.graphics.drawable.Drawable;
+import android.os.AsyncTask;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.support.annotation.ColorInt;
 import android.support.annotation.DrawableRes;
+import android.support.annotation.LayoutRes;
 import android.support.annotation.MenuRes;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.design.widget.FloatingActionButton;
 import android.support.v4.content.ContextCompat;
+import android.support.v4.util.SimpleArrayMap;
+import android.support.v4.view.ViewCompat;
+import android.support.v7.content.res.AppCompatResources;
 import android.support.v7.view.menu.MenuBuilder;
 import android.support.v7.widget.RecyclerView;
 import android.util.AttributeSet;
+import android.util.Log;
+import android.util.TypedValue;
 import android.view.LayoutInflater;
 import android.view.Menu;
 import android.view.MenuInflater;
@@ -36,10 +47,18 @@ import android.view.MenuItem;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewOutlineProvider;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.AnimationUtils;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
 import android.view.animation.OvershootInterpolator;
 import android.widget.ImageView;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.FutureTask;
 
 public class CycleMenuWidget extends ViewGroup {
 
@@ -49,23 +68,42 @@ public class CycleMenuWidget extends ViewGroup {
     private static final int RIPPLE_REVEAL_DURATION = 300;
     private static final int RIPPLE_ALPHA_DURATION = 450;
 
-    private static final String RIPPLE_RADIUS_ANIMATOR_FIELD_NAME = "rippleRadius";
-    private static final String RIPPLE_ALPHA_ANIMATOR_FIELD_NAME = "rippleAlpha";
-    private static final String CIRCLE_RADIUS_ANIMATOR_FIELD_NAME = "animationCircleRadius";
-    private static final String SHADOW_SIZE_ANIMATOR_FIELD_NAME = "variableShadowSize";
+    private static final int CENTER_IMAGE_OPEN_ANGLE = -45;
+
+    private static final String TAG = CycleMenuWidget.class.getSimpleName();
 
     private static final String FIELD_NAME_FOR_EXCEPTION_ITEM = "item";
     private static final String FIELD_NAME_FOR_EXCEPTION_MENU = "menu";
     private static final String FIELD_NAME_FOR_EXCEPTION_ITEMS = "items";
+    private static final String FIELD_NAME_FOR_EXCEPTION_ITEMS_SOURCE = "itemsSource";
     private static final String FIELD_NAME_FOR_EXCEPTION_CORNER = "corner";
     private static final String FIELD_NAME_FOR_EXCEPTION_SCALING_TYPE = "scalingType";
     private static final String FIELD_NAME_FOR_EXCEPTION_SCROLLING_TYPE = "scrollingType";
+    private static final String FIELD_NAME_FOR_EXCEPTION_QUALITY = "quality";
+    private static final String FIELD_NAME_FOR_EXCEPTION_STATE_REGISTRY = "stateRegistry";
 
     private static final int DEFAULT_UNDEFINED_VALUE = -1;
     private static final float SHADOW_SIZE_MIN_COEFFICIENT = 0.25f;
+    /**
+     * Count of the items which roll one after another in the MEDIUM quality.
+     */
+    private static final int MEDIUM_QUALITY_STAGGERED_ITEMS = 3;
+    /**
+     * Slot of the rotation listener by default is in the middle of the menu.
+     */
+    private static final double DEFAULT_ROTATION_SLOT_ANGLE = 45;
+    /**
+     * Bytes per pixel of the hardware layer (ARGB_8888).
+     */
+    private static final int LAYER_BYTES_PER_PIXEL = 4;
+    /**
+     * Max count of the rings of the multi-ring menu including the outer one.
+     */
+    private static final int MAX_RINGS_COUNT = 3;
 
     /**
-     * Specifies states of cycle menu widget. If mState is IN_OPEN_PROCESS or IN_CLOSE_PROCESS then clicks will not be handled.
+     * Specifies states of cycle menu widget. If mState is IN_OPEN_PROCESS or IN_CLOSE_PROCESS then click reverses
+     * the running animation from its current frame.
      */
     public enum STATE {
         OPEN, CLOSED, IN_OPEN_PROCESS, IN_CLOSE_PROCESS
@@ -202,8 +240,138 @@ public class CycleMenuWidget extends ViewGroup {
 
     private SCROLL mScrollType = SCROLL.ENDLESS;
 
+    /**
+     * Quality of the animations and effects.
+     * HIGH - overshoot, staggered rolling of all items, gradient shadow and ripple.
+     * MEDIUM - no overshoot, only few items roll one after another, flat shadow.
+     * LOW - no shadow and ripple, circle and items are shown without animation.
+     * AUTO - quality is picked by the device class and is decreased if open/close animations of the widget drop frames.
+     */
+    public enum QUALITY {
+        AUTO(0),
+        HIGH(1),
+        MEDIUM(2),
+        LOW(3);
+
+        private final int mValue;
+
+        QUALITY(int value) {
+            mValue = value;
+        }
+
+        public int getValue() {
+            return mValue;
+        }
+
+        public static QUALITY valueOf(int value) {
+            switch (value) {
+                case 1:
+                    return HIGH;
+                case 2:
+                    return MEDIUM;
+                case 3:
+                    return LOW;
+                case 0:
+                default:
+                    return AUTO;
+            }
+        }
+    }
+
+    /**
+     * Size of the menu item button.
+     * MINI - mini FloatingActionButton, is used by default.
+     * NORMAL - normal FloatingActionButton, e.g. for the primary action among the mini actions.
+     */
+    public enum ITEM_SIZE {
+        MINI(0),
+        NORMAL(1);
+
+        private final int mValue;
+
+        ITEM_SIZE(int value) {
+            mValue = value;
+        }
+
+        public int getValue() {
+            return mValue;
+        }
+
+        public static ITEM_SIZE valueOf(int value) {
+            switch (value) {
+                case 1:
+                    return NORMAL;
+                case 0:
+                default:
+                    return MINI;
+            }
+        }
+    }
+
+    private QualityPolicy mQualityPolicy;
+    /**
+     * Quality which was applied to the effects last time. Is compared with active quality of the policy
+     * because AUTO quality can be decreased by another widget.
+     */
+    private QUALITY mAppliedQuality;
+    private boolean mShadowEnabled = true;
+    private boolean mFlatShadow = false;
+    private boolean mRippleEnabled = true;
+    private boolean mCircleAnimated = true;
+
     private OnStateChangedListener mOnStateChangeListener;
     private StateSaveListener mStateSaveListener;
+    /**
+     * Registry which keeps the state of the menu for the row with the key, null if the menu isn't bound to it.
+     */
+    @Nullable
+    private CycleMenuStateRegistry mStateRegistry;
+    private long mStateKey;
+    private OnRotationListener mOnRotationListener;
+
+    /**
+     * Angle in degrees of the slot which item is reported to the rotation listener.
+     */
+    private double mRotationSlotAngle = DEFAULT_ROTATION_SLOT_ANGLE;
+    private int mSlotItemPosition = RecyclerView.NO_POSITION;
+    /**
+     * True if rotation is already posted to be dispatched on the next frame.
+     */
+    private boolean mRotationDispatchPending = false;
+    private Runnable mRotationDispatchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mRotationDispatchPending = false;
+            dispatchRotation();
+        }
+    };
+    @Nullable
+    private CycleMenuItemsModel mItemsModel;
+    /**
+     * Is increased when menu load is cancelled, items of the previous loads are dropped.
+     */
+    private int mMenuLoadGeneration;
+    @Nullable
+    private FutureTask<Void> mMenuLoadTask;
+    @Nullable
+    private OnMenuLoadListener mOnMenuLoadListener;
+    private Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private CycleMenuItemsModel.OnItemsChangedListener mItemsModelListener = new CycleMenuItemsModel.OnItemsChangedListener() {
+        @Override
+        public void onItemsChanged(List<CycleMenuItem> items) {
+            applyItemsSnapshot(items);
+        }
+    };
+    private OnItemsRotatedListener mOnItemsRotatedListener = new OnItemsRotatedListener() {
+        @Override
+        public void onItemsRotated() {
+            if (mOnRotationListener == null || mRotationDispatchPending) {
+                return;
+            }
+            mRotationDispatchPending = true;
+            ViewCompat.postOnAnimation(CycleMenuWidget.this, mRotationDispatchRunnable);
+        }
+    };
 
     private boolean mShouldOpen = false;
     private float mShadowSize = 40;
@@ -239,11 +407,75 @@ public class CycleMenuWidget extends ViewGroup {
      * Paint shadow around background circle
      */
     private Paint mCornerShadowPaint;
+    /**
+     * Paint for the flat shadow ring which is drawn instead of the gradient in MEDIUM quality.
+     */
+    private Paint mFlatShadowPaint;
     /**
      * Path for the shadow around the background circle
      */
     private Path mCornerShadowPath;
 
+    /**
+     * If true and device is lollipop or above the shadow of the circle is drawn with elevation and outline
+     * (on the RenderThread) instead of the gradient path.
+     */
+    private boolean mOutlineShadowEnabled = false;
+    /**
+     * Outline provider for the quarter of the circle. Is used only in lollipop and above.
+     */
+    private CornerOutlineProvider mOutlineProvider;
+    private float mOutlineShadowElevation;
+
+    /**
+     * If true and device is lollipop or above the circle open/close animation is run as a circular reveal
+     * on the RenderThread.
+     */
+    private boolean mRenderThreadRevealEnabled = true;
+    /**
+     * View which is revealed during open/close animation. Exists only in lollipop and above.
+     */
+    private CircleRevealView mRevealView;
+    private Animator mRevealAnimator;
+    private Animator.AnimatorListener mRevealListener;
+    /**
+     * Parameters of the running reveal. RenderThread animator doesn't report its value,
+     * so they are used to compute current radius of the circle when reveal is reversed.
+     */
+    private int mRevealFromRadius;
+    private int mRevealToRadius;
+    private long mRevealStartTime;
+    private long mRevealDuration;
+
+    /**
+     * Animators and callbacks of open/close and ripple. Are created once in init and reused.
+     */
+    private ReusableAnimator mCircleAnimator;
+    private ReusableAnimator mRippleRadiusAnimator;
+    private ReusableAnimator mRippleAlphaAnimator;
+    private Interpolator mCenterImageInterpolator;
+    private Interpolator mOvershootInterpolator = new OvershootInterpolator(2);
+    private Interpolator mDecelerateInterpolator = new DecelerateInterpolator();
+    private Interpolator mCircleInterpolator = new AccelerateDecelerateInterpolator();
+    private ItemsRollAnimator.OnCompleteCallback mRollInCompleteCallback;
+    private ItemsRollAnimator.OnCompleteCallback mRollOutCompleteCallback;
+    /**
+     * Direction of the running circle animation. True if circle is opening.
+     */
+    private boolean mCircleOpening = false;
+
+    /**
+     * Values which were used to build mCornerShadowPath and shader. Shadow is rebuilt only if one of them is changed.
+     */
+    private float mShadowBuiltForRadius = -1;
+    private float mShadowBuiltForSize = -1;
+    private int mShadowBuiltForWidth = -1;
+
+    /**
+     * Rect which is used to invalidate only changed quarter of the circle.
+     */
+    private Rect mDirtyRect = new Rect();
+
     /**
      * Minimal circle radius for the background
      */
@@ -267,10 +499,24 @@ public class CycleMenuWidget extends ViewGroup {
      * Size of the one item element
      */
     private int mItemSize = -1;
+    /**
+     * Size of the one NORMAL item element, is used with FloatingActionButton items
+     */
+    private int mNormalItemSize = -1;
     /**
      * Size of inner menu recycler view
      */
     private int mRecyclerSize = -1;
+    /**
+     * Length of all items on the arc and size of the biggest item, are measured with the radius.
+     */
+    private int mItemsLength;
+    private int mMaxItemSize;
+    /**
+     * Size which was given to the widget by the last measure, rings are built for it.
+     */
+    private int mAvailableWidth;
+    private int mAvailableHeight;
 
     /**
      * Image for the image button placed in the corner.
@@ -284,6 +530,58 @@ public class CycleMenuWidget extends ViewGroup {
      * Layout manager that place items in the circular way
      */
     private CycleLayoutManager mLayoutManager;
+    /**
+     * Roll in/out animation of the items. Is shared by the layout manager and the canvas view.
+     */
+    private ItemsRollAnimator mRollAnimator;
+
+    /**
+     * If true items are drawn by the one canvas view instead of the recycler view with FloatingActionButton per item.
+     */
+    private boolean mCanvasItemsEnabled = false;
+    private boolean mItemsLayerRotationEnabled = false;
+    /**
+     * If true AUTO radius places items on a few concentric rings when they don't fit the arc of the max radius.
+     */
+    private boolean mMultiRingEnabled = false;
+    /**
+     * Rings inside the ring of the recycler view from the outer one to the center. Is empty if items are on one ring.
+     */
+    private List<MenuRing> mInnerRings = new ArrayList<>();
+    private boolean mItemLabelsEnabled = false;
+    private int mItemLabelColor;
+    /**
+     * Decoration which draws labels of the items of the recycler view, null if labels are disabled.
+     */
+    @Nullable
+    private ItemLabelDecoration mItemLabelDecoration;
+    /**
+     * True if the center image and items are promoted to hardware layers for the running animation.
+     */
+    private boolean mAnimationLayersPromoted = false;
+    /**
+     * Views which were promoted to hardware layers for the running animation and estimated memory of their layers.
+     * Only these views are released, so layers which were set by others are kept.
+     */
+    private SimpleArrayMap<View, Long> mAnimationLayers = new SimpleArrayMap<>();
+    /**
+     * Estimated memory of the hardware layers of this widget.
+     */
+    private long mAnimationLayersBytes;
+    /**
+     * Releases the layer of the item which is recycled while the animation runs.
+     */
+    private RecyclerView.RecyclerListener mLayerRecyclerListener = new RecyclerView.RecyclerListener() {
+        @Override
+        public void onViewRecycled(RecyclerView.ViewHolder holder) {
+            releaseAnimationLayer(holder.itemView);
+        }
+    };
+    private CanvasMenuView mCanvasMenuView;
+    /**
+     * Container of the items which is used right now: recycler view or canvas view.
+     */
+    private View mItemsView;
 
     /**
      * Background tint for the items
@@ -308,13 +606,25 @@ public class CycleMenuWidget extends ViewGroup {
     private RecyclerMenuAdapter mAdapter;
 
     /**
-     * When widget is used in the recyclerView item. It need to be requested to relayout itself.
-     * runnableRequestLayout is used for that reason
+     * Rolls items of the recycler view and of the inner rings together.
      */
-    private Runnable runnableRequestLayout = new Runnable() {
+    private ItemsRollAnimator.Target mItemsRollTarget = new ItemsRollAnimator.Target() {
         @Override
-        public void run() {
-            mLayoutManager.requestLayout();
+        public int getRollItemsCount() {
+            //rings roll at the same time, so the longest of them sets the duration
+            int count = mLayoutManager.getRollItemsCount();
+            for (MenuRing ring : mInnerRings) {
+                count = Math.max(count, ring.getLayoutManager().getRollItemsCount());
+            }
+            return count;
+        }
+
+        @Override
+        public void onRollProgressChanged() {
+            mLayoutManager.onRollProgressChanged();
+            for (MenuRing ring : mInnerRings) {
+                ring.getLayoutManager().onRollProgressChanged();
+            }
         }
     };
 
@@ -350,8 +660,21 @@ public class CycleMenuWidget extends ViewGroup {
         mScrollType = SCROLL.valueOf(typedArrayValues.getInt(R.styleable.CycleMenuWidget_cm_scroll_type, SCROLL.BASIC.getValue()));
         Drawable cornerImageDrawable = typedArrayValues.getDrawable(R.styleable.CycleMenuWidget_cm_corner_image_src);
         mRippleColor = typedArrayValues.getColor(R.styleable.CycleMenuWidget_cm_ripple_color, DEFAULT_UNDEFINED_VALUE);
+        mOutlineShadowEnabled = typedArrayValues.getBoolean(R.styleable.CycleMenuWidget_cm_outline_shadow, false);
+        mRenderThreadRevealEnabled = typedArrayValues.getBoolean(R.styleable.CycleMenuWidget_cm_render_thread_reveal, true);
+        QUALITY quality = QUALITY.valueOf(typedArrayValues.getInt(R.styleable.CycleMenuWidget_cm_quality, QUALITY.HIGH.getValue()));
+        boolean canvasItemsEnabled = typedArrayValues.getBoolean(R.styleable.CycleMenuWidget_cm_canvas_items, false);
+        boolean itemsLayerRotationEnabled = typedArrayValues.getBoolean(R.styleable.CycleMenuWidget_cm_items_layer_rotation, false);
+        mMultiRingEnabled = typedArrayValues.getBoolean(R.styleable.CycleMenuWidget_cm_multi_ring, false);
+        int itemsIconTint = typedArrayValues.getColor(R.styleable.CycleMenuWidget_cm_item_icon_tint, Color.TRANSPARENT);
+        boolean itemLabelsEnabled = typedArrayValues.getBoolean(R.styleable.CycleMenuWidget_cm_item_labels, false);
+        mItemLabelColor = typedArrayValues.getColor(R.styleable.CycleMenuWidget_cm_item_label_color,
+                ContextCompat.getColor(context, R.color.cm_item_label_color));
         typedArrayValues.recycle();
 
+        mQualityPolicy = new QualityPolicy(context);
+        mQualityPolicy.setQuality(quality);
+
         mCirclePaint = new Paint();
         mCirclePaint.setAntiAlias(true);
         mCirclePaint.setColor(Color.WHITE);
@@ -372,23 +695,43 @@ public class CycleMenuWidget extends ViewGroup {
         mShadowMiddleColor = ContextCompat.getColor(getContext(), R.color.cm_shadow_mid_color);
         mShadowEndColor = ContextCompat.getColor(getContext(), R.color.cm_shadow_end_color);
 
+        mFlatShadowPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mFlatShadowPaint.setStyle(Paint.Style.STROKE);
+        mFlatShadowPaint.setColor(mShadowMiddleColor);
+
         mShadowSize = getResources().getDimensionPixelSize(R.dimen.cm_main_shadow_size);
         mVariableShadowSize = mShadowSize * SHADOW_SIZE_MIN_COEFFICIENT;
         mPreLollipopAdditionalButtonsMargin = getContext().getResources().getDimensionPixelSize(R.dimen.cm_prelollipop_additional_margin);
         mCircleMinRadius = getContext().getResources().getDimensionPixelSize(R.dimen.cm_circle_min_radius);
         mAnimationCircleRadius = mCircleMinRadius;
+        mOutlineShadowElevation = getContext().getResources().getDimension(R.dimen.cm_outline_shadow_elevation);
+        applyShadowMode();
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            //should be under the items and the center image
+            mRevealView = new CircleRevealView(getContext(), mCirclePaint);
+            addView(mRevealView);
+        }
 
         mRecyclerView = new TouchedRecyclerView(getContext());
+        mRecyclerView.setCorner(mCorner);
         mRecyclerView.setOverScrollMode(RecyclerView.OVER_SCROLL_NEVER);
-        mLayoutManager = new CycleLayoutManager(getContext(), mCorner);
+        mRollAnimator = new ItemsRollAnimator();
+        mRollAnimator.setQualityPolicy(mQualityPolicy);
+        mLayoutManager = new CycleLayoutManager(getContext(), mCorner, mRollAnimator);
+        mRollAnimator.setTarget(mItemsRollTarget);
+        mLayoutManager.setOnItemsRotatedListener(mOnItemsRotatedListener);
         addView(mRecyclerView);
+        mItemsView = mRecyclerView;
 
         mAdapter = new RecyclerMenuAdapter();
         if (mItemsBackgroundTint != null) {
             mAdapter.setItemsBackgroundTint(mItemsBackgroundTint);
         }
+        mAdapter.setItemsIconTint(itemsIconTint);
         mRecyclerView.setLayoutManager(mLayoutManager);
         mRecyclerView.setAdapter(mAdapter);
+        mRecyclerView.setRecyclerListener(mLayerRecyclerListener);
         mCenterImage = new ImageView(getContext());
         if (cornerImageDrawable != null) {
             mCenterImage.setImageDrawable(cornerImageDrawable);
@@ -399,157 +742,746 @@ public class CycleMenuWidget extends ViewGroup {
         addView(mCenterImage);
 
         mCenterImage.setOnTouchListener(new CenterImageTouchListener());
+        initAnimators();
+        applyQuality();
+        setItemsLayerRotationEnabled(itemsLayerRotationEnabled);
+        setItemLabelsEnabled(itemLabelsEnabled);
+        if (canvasItemsEnabled) {
+            setCanvasItemsEnabled(true);
+        }
     }
 
     @Override
     public boolean onInterceptTouchEvent(MotionEvent ev) {
-        mRecyclerView.setHasItemsToScroll(mLayoutManager.isCountOfItemsAvailableToScroll());
+        if (!mCanvasItemsEnabled) {
+            mRecyclerView.setHasItemsToScroll(mLayoutManager.isCountOfItemsAvailableToScroll());
+            for (MenuRing ring : mInnerRings) {
+                ring.getRecyclerView().setHasItemsToScroll(ring.getLayoutManager().isCountOfItemsAvailableToScroll());
+            }
+        }
         return super.onInterceptTouchEvent(ev);
     }
 
     /**
-     * Set menu item click listener
+     * Enable/disable drawing of all items in the one view. Canvas items are lighter than FloatingActionButton per item:
+     * there is no view per item to inflate, measure and layout, and all items are drawn in one pass.
+     * Click listener receives the same positions, the view passed to it has id of the clicked item.
      *
-     * @param onMenuItemClickListener listener
+     * @param canvasItemsEnabled true to draw items on the canvas, false to use FloatingActionButton per item
      */
-    public void setOnMenuItemClickListener(@Nullable OnMenuItemClickListener onMenuItemClickListener) {
-        mAdapter.setOnMenuItemClickListener(onMenuItemClickListener);
+    public void setCanvasItemsEnabled(boolean canvasItemsEnabled) {
+        if (mCanvasItemsEnabled == canvasItemsEnabled) {
+            return;
+        }
+        int currentPosition = getCurrentPosition();
+        if (currentPosition != RecyclerView.NO_POSITION) {
+            mCurrentPosition = currentPosition;
+            mCurrentAngleOffset = getCurrentItemsAngleOffsetOfItems();
+        }
+        mRollAnimator.reset();
+        mCanvasItemsEnabled = canvasItemsEnabled;
+        if (canvasItemsEnabled) {
+            if (mCanvasMenuView == null) {
+                mCanvasMenuView = new CanvasMenuView(getContext(), mAdapter, mRollAnimator);
+                mCanvasMenuView.setCorner(mCorner);
+                mCanvasMenuView.setItemsBackgroundTint(mItemsBackgroundTint);
+                mCanvasMenuView.setOnItemsRotatedListener(mOnItemsRotatedListener);
+                //should be above the recycler view and under the center image
+                addView(mCanvasMenuView, indexOfChild(mRecyclerView) + 1);
+            }
+            mCanvasMenuView.setVisibility(VISIBLE);
+            mRecyclerView.setVisibility(GONE);
+            mRollAnimator.setTarget(mCanvasMenuView);
+            mItemsView = mCanvasMenuView;
+        } else {
+            if (mCanvasMenuView != null) {
+                mCanvasMenuView.setVisibility(GONE);
+            }
+            mRecyclerView.setVisibility(VISIBLE);
+            mRollAnimator.setTarget(mItemsRollTarget);
+            mItemsView = mRecyclerView;
+        }
+        setItemsTranslationX(mState == STATE.OPEN ? 0 : getWidth());
+        scrollEnabled(mState == STATE.OPEN || mState == STATE.CLOSED);
+        mItemSize = -1;
+        mNormalItemSize = -1;
+        mInitialized = false;
+        rebuildRings();
     }
 
     /**
-     * Add the menu item.
+     * Enable/disable rotation of the whole items layer on scroll. Items are laid out once with one more item
+     * beyond each edge, a drag frame rotates the layer and keeps icons upright instead of moving every item.
+     * Items are moved and rebound only when they cross the edge. Is used for the ENDLESS scroll of FloatingActionButton
+     * items, canvas items are already drawn by one view.
      *
-     * @param item menu item to add
+     * @param itemsLayerRotationEnabled true to rotate the items layer
      */
-    public void addMenuItem(@NonNull CycleMenuItem item) {
-        checkNonNullParams(item, FIELD_NAME_FOR_EXCEPTION_ITEM);
+    public void setItemsLayerRotationEnabled(boolean itemsLayerRotationEnabled) {
+        if (mItemsLayerRotationEnabled == itemsLayerRotationEnabled) {
+            return;
+        }
+        int currentPosition = getCurrentPosition();
+        if (currentPosition != RecyclerView.NO_POSITION) {
+            mCurrentPosition = currentPosition;
+            mCurrentAngleOffset = getCurrentItemsAngleOffsetOfItems();
+        }
+        mItemsLayerRotationEnabled = itemsLayerRotationEnabled;
+        //items beyond the edges are rotated into the menu, they shouldn't be clipped by the items layer
+        mRecyclerView.setClipChildren(!itemsLayerRotationEnabled);
+        setClipChildren(!itemsLayerRotationEnabled);
+        mLayoutManager.setLayerRotationEnabled(itemsLayerRotationEnabled);
+        for (MenuRing ring : mInnerRings) {
+            ring.setLayerRotationEnabled(itemsLayerRotationEnabled);
+        }
         mInitialized = false;
-        mAdapter.addItem(item);
-        mAdapter.notifyDataSetChanged();
+        requestLayout();
     }
 
     /**
-     * Set the menu items from the menu res.
-     *
-     * @param menuResId menu resource from which need to get menuItems and add to the cycleMenu
+     * @return true if scroll rotates the items layer
      */
-    public void setMenuRes(@MenuRes int menuResId) {
-        mInitialized = false;
-        Menu menu = new MenuBuilder(getContext());
-        MenuInflater inflater = new MenuInflater(getContext());
-        inflater.inflate(menuResId, menu);
-        setMenu(menu);
+    public boolean isItemsLayerRotationEnabled() {
+        return mItemsLayerRotationEnabled;
     }
 
     /**
-     * Set the menu items from the Menu object
-     *
-     * @param menu menu object from which need to get menuItems and add to the cycleMenu
+     * @return true if items are drawn by the one canvas view
      */
-    public void setMenu(@NonNull Menu menu) {
-        checkNonNullParams(menu, FIELD_NAME_FOR_EXCEPTION_MENU);
-        mInitialized = false;
-        for (int i = 0; i < menu.size(); i++) {
-            MenuItem menuItem = menu.getItem(i);
-            CycleMenuItem cycleMenuItem = new CycleMenuItem(menuItem.getItemId(), menuItem.getIcon());
-            mAdapter.addItem(cycleMenuItem);
-        }
-        mAdapter.notifyDataSetChanged();
+    public boolean isCanvasItemsEnabled() {
+        return mCanvasItemsEnabled;
     }
 
     /**
-     * Add the menu items for the cycleMenu
+     * Enable/disable placing of the items on a few concentric rings around the corner. Is used with the AUTO radius
+     * and FloatingActionButton items: if items don't fit the arc of the max radius, count of the rings is picked
+     * by the length of the items. Each ring scrolls and recycles its items independently.
+     * Click listener gets the real positions of the items, position and rotation of the menu are those of the outer ring.
      *
-     * @param items Collection of the items to add
+     * @param multiRingEnabled true to place items on a few rings
      */
-    public void addMenuItems(@NonNull Collection<CycleMenuItem> items) {
-        checkNonNullParams(items, FIELD_NAME_FOR_EXCEPTION_ITEMS);
+    public void setMultiRingEnabled(boolean multiRingEnabled) {
+        if (mMultiRingEnabled == multiRingEnabled) {
+            return;
+        }
+        mMultiRingEnabled = multiRingEnabled;
         mInitialized = false;
-        mAdapter.addItems(items);
-        mAdapter.notifyDataSetChanged();
+        rebuildRings();
     }
 
     /**
-     * Set the menu items for the cycleMenu
-     *
-     * @param items Collection of the items to set
+     * @return true if items can be placed on a few rings
      */
-    public void setMenuItems(@NonNull Collection<CycleMenuItem> items) {
-        checkNonNullParams(items, FIELD_NAME_FOR_EXCEPTION_ITEMS);
-        mInitialized = false;
-        mAdapter.setItems(items);
-        mAdapter.notifyDataSetChanged();
+    public boolean isMultiRingEnabled() {
+        return mMultiRingEnabled;
     }
 
     /**
-     * Set the scaling type which will be used to calculate radius for the cycle menu.
+     * Enable/disable labels of the items, see {@link CycleMenuItem#getLabel()}. Label is drawn next to its item
+     * on the side of the corner when the items aren't rolling. Text of the labels is measured on the background
+     * thread and is cached, so scroll only moves already measured text. Labels are shown for the FloatingActionButton
+     * items, they aren't drawn by the canvas items view.
      *
-     * @param corner - mCorner to set for the menu LEFT_TOP, RIGHT_TOP, LEFT_BOTTOM, RIGHT_BOTTOM
+     * @param itemLabelsEnabled true to show labels of the items
      */
-    public void setCorner(@NonNull CORNER corner) {
-        checkNonNullParams(corner, FIELD_NAME_FOR_EXCEPTION_CORNER);
-        mInitialized = false;
-        mLayoutManager.setCorner(corner);
-        mCorner = corner;
+    public void setItemLabelsEnabled(boolean itemLabelsEnabled) {
+        if (mItemLabelsEnabled == itemLabelsEnabled) {
+            return;
+        }
+        mItemLabelsEnabled = itemLabelsEnabled;
+        if (itemLabelsEnabled) {
+            mItemLabelDecoration = new ItemLabelDecoration(mRecyclerView, mRollAnimator);
+            mItemLabelDecoration.setCorner(mCorner);
+            mItemLabelDecoration.setTextColor(mItemLabelColor);
+            mRecyclerView.addItemDecoration(mItemLabelDecoration);
+        } else if (mItemLabelDecoration != null) {
+            mRecyclerView.removeItemDecoration(mItemLabelDecoration);
+            mItemLabelDecoration = null;
+        }
+        mAdapter.setItemLabelDecoration(mItemLabelDecoration);
+        for (MenuRing ring : mInnerRings) {
+            ring.setItemLabelsEnabled(itemLabelsEnabled, mItemLabelColor);
+        }
     }
 
     /**
-     * Set the scaling type which will be used to calculate radius for the cycle menu.
-     *
-     * @param scalingType type of scaling AUTO,FIXED
+     * @return true if labels of the items are shown
      */
-    public void setScalingType(@NonNull RADIUS_SCALING_TYPE scalingType) {
-        checkNonNullParams(scalingType, FIELD_NAME_FOR_EXCEPTION_SCALING_TYPE);
-        mInitialized = false;
-        mScalingType = scalingType;
+    public boolean isItemLabelsEnabled() {
+        return mItemLabelsEnabled;
     }
 
     /**
-     * Set ripple color
+     * Set color of the item labels.
      *
-     * @param rippleColor color to set
+     * @param itemLabelColor color of the labels
      */
-    public void setRippleColor(int rippleColor) {
-        mRippleColor = rippleColor;
-        setRippleAlpha(Color.alpha(mRippleColor));
-        mRipplePaint.setColor(mRippleColor);
+    public void setItemLabelColor(@ColorInt int itemLabelColor) {
+        mItemLabelColor = itemLabelColor;
+        if (mItemLabelDecoration != null) {
+            mItemLabelDecoration.setTextColor(itemLabelColor);
+        }
+        for (MenuRing ring : mInnerRings) {
+            ring.setItemLabelsEnabled(mItemLabelsEnabled, itemLabelColor);
+        }
     }
 
     /**
-     * Set image for corner image button
-     *
-     * @param cornerImageDrawable
+     * @return count of the rings which items are placed on right now
      */
-    public void setCornerImageDrawable(@Nullable Drawable cornerImageDrawable) {
-        mCenterImage.setImageDrawable(cornerImageDrawable);
+    public int getRingsCount() {
+        return mInnerRings.size() + 1;
     }
 
     /**
-     * Set image resource for corner image button
+     * Set menu item click listener
      *
-     * @param drawableRes resource to drawable
+     * @param onMenuItemClickListener listener
      */
-    public void setCornerImageResource(@DrawableRes int drawableRes) {
-        mCenterImage.setImageResource(drawableRes);
+    public void setOnMenuItemClickListener(@Nullable OnMenuItemClickListener onMenuItemClickListener) {
+        mAdapter.setOnMenuItemClickListener(onMenuItemClickListener);
     }
 
     /**
-     * Set image bitmap for corner image button
+     * Add the menu item.
      *
-     * @param bitmap resource to drawable
+     * @param item menu item to add
      */
-    public void setCornerImageBitmap(Bitmap bitmap) {
-        mCenterImage.setImageBitmap(bitmap);
+    public void addMenuItem(@NonNull CycleMenuItem item) {
+        checkNonNullParams(item, FIELD_NAME_FOR_EXCEPTION_ITEM);
+        mInitialized = false;
+        unbindItemsModel();
+        mAdapter.addItem(item);
+        notifyItemsChanged();
     }
 
     /**
-     * Applies a min radius radius for the menu. Will be used if scaling_type set to {@code RADIUS_SCALING_TYPE.AUTO}
+     * Set the menu items from the menu res.
      *
-     * @param autoMinRadius min radius to set
+     * @param menuResId menu resource from which need to get menuItems and add to the cycleMenu
      */
-    public void setAutoMinRadius(int autoMinRadius) {
+    public void setMenuRes(@MenuRes int menuResId) {
+        mInitialized = false;
+        Menu menu = new MenuBuilder(getContext());
+        MenuInflater inflater = new MenuInflater(getContext());
+        inflater.inflate(menuResId, menu);
+        setMenu(menu);
+    }
+
+    /**
+     * Asynchronous variant of {@link #setMenuRes(int)}. Menu resource is read and icons of its items are loaded on the
+     * background executor, items are added on the main thread. Load which is running is cancelled by the next call,
+     * by {@link #setMenuItems(Collection)}, {@link #setMenuItemsSource(CycleMenuItemsSource)},
+     * {@link #setMenuItemsModel(CycleMenuItemsModel)} and {@link #cancelMenuResLoad()}.
+     * Result of the load is reported to the {@link OnMenuLoadListener}. If the menu can't be read the menu is left
+     * without its items, failure is reported to the listener or is logged if the listener isn't set.
+     *
+     * @param menuResId menu resource from which need to get menuItems and add to the cycleMenu
+     */
+    public void setMenuResAsync(@MenuRes final int menuResId) {
+        cancelMenuResLoad();
+        final int generation = mMenuLoadGeneration;
+        final Context context = getContext();
+        mMenuLoadTask = new FutureTask<>(new Runnable() {
+            @Override
+            public void run() {
+                final List<MenuResParser.Item> items;
+                try {
+                    items = MenuResParser.parse(context, menuResId);
+                } catch (final Exception e) {
+                    mMainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            onMenuResFailed(generation, menuResId, e);
+                        }
+                    });
+                    return;
+                }
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onMenuResLoaded(generation, menuResId, items);
+                    }
+                });
+            }
+        }, null);
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(mMenuLoadTask);
+    }
+
+    /**
+     * Cancel loading of the menu started by {@link #setMenuResAsync(int)}. Items of the cancelled load aren't added.
+     */
+    public void cancelMenuResLoad() {
+        mMenuLoadGeneration++;
+        if (mMenuLoadTask != null) {
+            mMenuLoadTask.cancel(false);
+            mMenuLoadTask = null;
+        }
+    }
+
+    /**
+     * Set listener of the menu loads started by {@link #setMenuResAsync(int)}.
+     *
+     * @param listener OnMenuLoadListener
+     */
+    public void setOnMenuLoadListener(@Nullable OnMenuLoadListener listener) {
+        mOnMenuLoadListener = listener;
+    }
+
+    private void onMenuResLoaded(int generation, @MenuRes int menuResId, List<MenuResParser.Item> menuItems) {
+        if (generation != mMenuLoadGeneration) {
+            //load was cancelled after the items were loaded
+            return;
+        }
+        mMenuLoadTask = null;
+        List<CycleMenuItem> items = new ArrayList<>(menuItems.size());
+        try {
+            for (MenuResParser.Item menuItem : menuItems) {
+                items.add(new CycleMenuItem(menuItem.mId, resolveIcon(menuItem), ITEM_SIZE.MINI, menuItem.mTitle));
+            }
+        } catch (RuntimeException e) {
+            onMenuResFailed(generation, menuResId, e);
+            return;
+        }
+        mInitialized = false;
+        unbindItemsModel();
+        mAdapter.addItems(items);
+        notifyItemsChanged();
+        if (mOnMenuLoadListener != null) {
+            mOnMenuLoadListener.onMenuLoaded(menuResId);
+        }
+    }
+
+    /**
+     * Load the icon which wasn't loaded on the background thread: vector icons and icons of the theme attributes.
+     */
+    @Nullable
+    private Drawable resolveIcon(MenuResParser.Item menuItem) {
+        if (menuItem.mIcon != null) {
+            return menuItem.mIcon;
+        }
+        int iconRes = menuItem.mIconRes;
+        if (iconRes == 0 && menuItem.mIconAttr != 0) {
+            TypedValue value = new TypedValue();
+            if (getContext().getTheme().resolveAttribute(menuItem.mIconAttr, value, true)) {
+                iconRes = value.resourceId;
+            }
+        }
+        return iconRes != 0 ? AppCompatResources.getDrawable(getContext(), iconRes) : null;
+    }
+
+    private void onMenuResFailed(int generation, @MenuRes int menuResId, Exception e) {
+        if (generation != mMenuLoadGeneration) {
+            //failure of the cancelled load isn't reported
+            return;
+        }
+        mMenuLoadTask = null;
+        if (mOnMenuLoadListener != null) {
+            mOnMenuLoadListener.onMenuLoadFailed(menuResId, e);
+        } else {
+            Log.e(TAG, "Can't read menu resource #0x" + Integer.toHexString(menuResId), e);
+        }
+    }
+
+    /**
+     * Create items of the menu.
+     */
+    private static List<CycleMenuItem> toCycleMenuItems(Menu menu) {
+        List<CycleMenuItem> items = new ArrayList<>(menu.size());
+        for (int i = 0; i < menu.size(); i++) {
+            MenuItem menuItem = menu.getItem(i);
+            items.add(new CycleMenuItem(menuItem.getItemId(), menuItem.getIcon(), ITEM_SIZE.MINI, menuItem.getTitle()));
+        }
+        return items;
+    }
+
+    /**
+     * Set the menu items from the Menu object
+     *
+     * @param menu menu object from which need to get menuItems and add to the cycleMenu
+     */
+    public void setMenu(@NonNull Menu menu) {
+        checkNonNullParams(menu, FIELD_NAME_FOR_EXCEPTION_MENU);
+        mInitialized = false;
+        unbindItemsModel();
+        mAdapter.addItems(toCycleMenuItems(menu));
+        notifyItemsChanged();
+    }
+
+    /**
+     * Add the menu items for the cycleMenu
+     *
+     * @param items Collection of the items to add
+     */
+    public void addMenuItems(@NonNull Collection<CycleMenuItem> items) {
+        checkNonNullParams(items, FIELD_NAME_FOR_EXCEPTION_ITEMS);
+        mInitialized = false;
+        unbindItemsModel();
+        mAdapter.addItems(items);
+        notifyItemsChanged();
+    }
+
+    /**
+     * Set the menu items for the cycleMenu
+     *
+     * @param items Collection of the items to set
+     */
+    public void setMenuItems(@NonNull Collection<CycleMenuItem> items) {
+        checkNonNullParams(items, FIELD_NAME_FOR_EXCEPTION_ITEMS);
+        mInitialized = false;
+        cancelMenuResLoad();
+        unbindItemsModel();
+        mAdapter.setItems(items);
+        notifyItemsChanged();
+    }
+
+    /**
+     * Set the source which loads the menu items by pages when the menu comes to them. Only a few pages are kept
+     * in memory, items which aren't loaded yet are shown as placeholders. Is used for the menus with thousands
+     * of items. Items set by the other methods replace the source.
+     *
+     * @param itemsSource source of the items
+     */
+    public void setMenuItemsSource(@NonNull CycleMenuItemsSource itemsSource) {
+        checkNonNullParams(itemsSource, FIELD_NAME_FOR_EXCEPTION_ITEMS_SOURCE);
+        mInitialized = false;
+        cancelMenuResLoad();
+        unbindItemsModel();
+        mAdapter.setItemsSource(itemsSource);
+        notifyItemsChanged();
+    }
+
+    /**
+     * Bind the menu to the items model which can be updated from any thread. Menu shows the latest snapshot
+     * of the model, updates are applied on the main thread and a few updates in a row are applied once.
+     * Items set by the other methods replace the model.
+     *
+     * @param itemsModel model of the items, null to unbind the menu from the model and keep its current items
+     */
+    public void setMenuItemsModel(@Nullable CycleMenuItemsModel itemsModel) {
+        cancelMenuResLoad();
+        unbindItemsModel();
+        mItemsModel = itemsModel;
+        if (itemsModel == null) {
+            return;
+        }
+        if (ViewCompat.isAttachedToWindow(this)) {
+            itemsModel.addListener(mItemsModelListener);
+        }
+        applyItemsSnapshot(itemsModel.getItems());
+    }
+
+    private void unbindItemsModel() {
+        if (mItemsModel != null) {
+            mItemsModel.removeListener(mItemsModelListener);
+            mItemsModel = null;
+        }
+    }
+
+    /**
+     * Swap the items to the snapshot of the model.
+     */
+    private void applyItemsSnapshot(List<CycleMenuItem> items) {
+        mInitialized = false;
+        mAdapter.setItemsSnapshot(items);
+        notifyItemsChanged();
+    }
+
+    /**
+     * Set the scaling type which will be used to calculate radius for the cycle menu.
+     *
+     * @param corner - mCorner to set for the menu LEFT_TOP, RIGHT_TOP, LEFT_BOTTOM, RIGHT_BOTTOM
+     */
+    public void setCorner(@NonNull CORNER corner) {
+        checkNonNullParams(corner, FIELD_NAME_FOR_EXCEPTION_CORNER);
+        mInitialized = false;
+        mLayoutManager.setCorner(corner);
+        mRecyclerView.setCorner(corner);
+        if (mItemLabelDecoration != null) {
+            mItemLabelDecoration.setCorner(corner);
+        }
+        for (MenuRing ring : mInnerRings) {
+            ring.setCorner(corner);
+        }
+        if (mCanvasMenuView != null) {
+            mCanvasMenuView.setCorner(corner);
+        }
+        mCorner = corner;
+        if (mOutlineProvider != null) {
+            mOutlineProvider.setCorner(corner);
+            updateOutline();
+        }
+    }
+
+    /**
+     * Set the scaling type which will be used to calculate radius for the cycle menu.
+     *
+     * @param scalingType type of scaling AUTO,FIXED
+     */
+    public void setScalingType(@NonNull RADIUS_SCALING_TYPE scalingType) {
+        checkNonNullParams(scalingType, FIELD_NAME_FOR_EXCEPTION_SCALING_TYPE);
+        mInitialized = false;
+        mScalingType = scalingType;
+        rebuildRings();
+    }
+
+    /**
+     * Enable/disable drawing of the circle shadow with elevation and outline. Is used only in lollipop and above,
+     * pre lollipop devices always use gradient shadow.
+     *
+     * @param outlineShadowEnabled true to draw shadow on the RenderThread, false to draw gradient shadow
+     */
+    public void setOutlineShadowEnabled(boolean outlineShadowEnabled) {
+        mOutlineShadowEnabled = outlineShadowEnabled;
+        applyShadowMode();
+        invalidate();
+    }
+
+    /**
+     * Enable/disable running of the circle open/close animation as a circular reveal on the RenderThread.
+     * Is used only in lollipop and above.
+     *
+     * @param renderThreadRevealEnabled true to use circular reveal, false to animate the circle on the UI thread
+     */
+    public void setRenderThreadRevealEnabled(boolean renderThreadRevealEnabled) {
+        mRenderThreadRevealEnabled = renderThreadRevealEnabled;
+    }
+
+    /**
+     * Set quality of the animations and effects, HIGH by default. AUTO picks quality by the device class
+     * and decreases it if open/close animations of this widget drop frames, setting quality again resets it.
+     *
+     * @param quality quality to set AUTO, HIGH, MEDIUM, LOW
+     */
+    public void setQuality(@NonNull QUALITY quality) {
+        checkNonNullParams(quality, FIELD_NAME_FOR_EXCEPTION_QUALITY);
+        mQualityPolicy.setQuality(quality);
+        applyQuality();
+    }
+
+    /**
+     * @return quality which was set to the widget, can be AUTO
+     */
+    public QUALITY getQuality() {
+        return mQualityPolicy.getQuality();
+    }
+
+    /**
+     * @return quality which is used right now HIGH, MEDIUM or LOW
+     */
+    public QUALITY getActiveQuality() {
+        return mQualityPolicy.getActiveQuality();
+    }
+
+    /**
+     * Switch effects to the active quality of the policy.
+     */
+    private void applyQuality() {
+        mAppliedQuality = mQualityPolicy.getActiveQuality();
+        boolean high = mAppliedQuality == QUALITY.HIGH;
+        boolean low = mAppliedQuality == QUALITY.LOW;
+        mCenterImageInterpolator = high ? mOvershootInterpolator : mDecelerateInterpolator;
+        mRollAnimator.setQuality(high, high ? Integer.MAX_VALUE : MEDIUM_QUALITY_STAGGERED_ITEMS, !low);
+        mShadowEnabled = !low;
+        mFlatShadow = !high;
+        mRippleEnabled = !low;
+        mCircleAnimated = !low;
+        if (!mRippleEnabled) {
+            mRippleRadiusAnimator.cancel();
+            mRippleAlphaAnimator.cancel();
+            setRippleAlpha(0);
+        }
+        applyShadowMode();
+        invalidate();
+    }
+
+    /**
+     * Start measuring of the open/close animation frames. Running animation which is reversed is measured as one.
+     */
+    private void onAnimationStarted() {
+        if (mState == STATE.IN_OPEN_PROCESS || mState == STATE.IN_CLOSE_PROCESS) {
+            return;
+        }
+        if (mAppliedQuality != mQualityPolicy.getActiveQuality()) {
+            applyQuality();
+        }
+        mQualityPolicy.onAnimationStart();
+        promoteAnimationLayers();
+    }
+
+    private void onAnimationFinished() {
+        releaseAnimationLayers();
+        if (mQualityPolicy.onAnimationEnd()) {
+            applyQuality();
+        }
+    }
+
+    /**
+     * Promote the center image and the item buttons to hardware layers for the duration of the animation.
+     * They are only rotated while animating, so layers are composited by GPU and their content isn't drawn again.
+     * Canvas items are drawn again on each frame of the roll, so they don't get the layer.
+     */
+    private void promoteAnimationLayers() {
+        if (mAnimationLayersPromoted || !isHardwareAccelerated() || !mCircleAnimated) {
+            return;
+        }
+        mAnimationLayersPromoted = true;
+        promoteAnimationLayer(mCenterImage);
+        if (!mCanvasItemsEnabled) {
+            promoteItemLayers(mRecyclerView);
+            for (MenuRing ring : mInnerRings) {
+                promoteItemLayers(ring.getRecyclerView());
+            }
+        }
+    }
+
+    private void promoteItemLayers(RecyclerView recyclerView) {
+        for (int i = recyclerView.getChildCount() - 1; i >= 0; i--) {
+            promoteAnimationLayer(recyclerView.getChildAt(i));
+        }
+    }
+
+    private void promoteAnimationLayer(View view) {
+        if (view.getLayerType() != LAYER_TYPE_NONE) {
+            return;
+        }
+        view.setLayerType(LAYER_TYPE_HARDWARE, null);
+        long bytes = (long) view.getWidth() * view.getHeight() * LAYER_BYTES_PER_PIXEL;
+        mAnimationLayers.put(view, bytes);
+        mAnimationLayersBytes += bytes;
+    }
+
+    /**
+     * Release the layers of the animation, so layer memory isn't held while the menu is idle.
+     */
+    private void releaseAnimationLayers() {
+        if (!mAnimationLayersPromoted) {
+            return;
+        }
+        mAnimationLayersPromoted = false;
+        for (int i = mAnimationLayers.size() - 1; i >= 0; i--) {
+            releaseAnimationLayer(mAnimationLayers.keyAt(i));
+        }
+    }
+
+    /**
+     * Restore the view to the layer type it had before the animation if it was promoted by this widget.
+     */
+    private void releaseAnimationLayer(View view) {
+        int index = mAnimationLayers.indexOfKey(view);
+        if (index < 0) {
+            return;
+        }
+        mAnimationLayersBytes -= mAnimationLayers.valueAt(index);
+        mAnimationLayers.removeAt(index);
+        //only views without layer are promoted, layer which was changed by others while animating is kept
+        if (view.getLayerType() == LAYER_TYPE_HARDWARE) {
+            view.setLayerType(LAYER_TYPE_NONE, null);
+        }
+    }
+
+    /**
+     * Layers are held only while open/close animations run, so the value is 0 for idle menus.
+     *
+     * @return estimated memory in bytes of the hardware layers held by this menu right now
+     */
+    public long getAnimationLayersMemory() {
+        return mAnimationLayersBytes;
+    }
+
+    /**
+     * @return true if circle open/close animation is run as a circular reveal
+     */
+    private boolean isRenderThreadRevealUsed() {
+        return mRenderThreadRevealEnabled && mRevealView != null && mCircleAnimated;
+    }
+
+    /**
+     * @return true if shadow of the circle is drawn with elevation and outline
+     */
+    private boolean isOutlineShadowUsed() {
+        return mOutlineShadowEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP;
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private void applyShadowMode() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+            return;
+        }
+        if (mOutlineShadowEnabled) {
+            if (mOutlineProvider == null) {
+                mOutlineProvider = new CornerOutlineProvider();
+            }
+            mOutlineProvider.setCorner(mCorner);
+            mOutlineProvider.setRadius(mAnimationCircleRadius);
+            setOutlineProvider(mOutlineProvider);
+            setElevation(mShadowEnabled ? mOutlineShadowElevation : 0);
+        } else {
+            mOutlineProvider = null;
+            setOutlineProvider(ViewOutlineProvider.BACKGROUND);
+            setElevation(0);
+        }
+    }
+
+    /**
+     * Update outline of the circle if shadow is drawn with elevation.
+     */
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private void updateOutline() {
+        if (mOutlineProvider != null) {
+            mOutlineProvider.setRadius(mAnimationCircleRadius);
+            invalidateOutline();
+        }
+    }
+
+    /**
+     * Set ripple color
+     *
+     * @param rippleColor color to set
+     */
+    public void setRippleColor(int rippleColor) {
+        mRippleColor = rippleColor;
+        setRippleAlpha(Color.alpha(mRippleColor));
+        mRipplePaint.setColor(mRippleColor);
+        invalidate();
+    }
+
+    /**
+     * Set image for corner image button
+     *
+     * @param cornerImageDrawable
+     */
+    public void setCornerImageDrawable(@Nullable Drawable cornerImageDrawable) {
+        mCenterImage.setImageDrawable(cornerImageDrawable);
+    }
+
+    /**
+     * Set image resource for corner image button
+     *
+     * @param drawableRes resource to drawable
+     */
+    public void setCornerImageResource(@DrawableRes int drawableRes) {
+        mCenterImage.setImageResource(drawableRes);
+    }
+
+    /**
+     * Set image bitmap for corner image button
+     *
+     * @param bitmap resource to drawable
+     */
+    public void setCornerImageBitmap(Bitmap bitmap) {
+        mCenterImage.setImageBitmap(bitmap);
+    }
+
+    /**
+     * Applies a min radius radius for the menu. Will be used if scaling_type set to {@code RADIUS_SCALING_TYPE.AUTO}
+     *
+     * @param autoMinRadius min radius to set
+     */
+    public void setAutoMinRadius(int autoMinRadius) {
         mInitialized = false;
         mAutoMinRadius = autoMinRadius;
+        rebuildRings();
     }
 
     /**
@@ -560,6 +1492,7 @@ public class CycleMenuWidget extends ViewGroup {
     public void setAutoMaxRadius(int autoMaxRadius) {
         mInitialized = false;
         mAutoMaxRadius = autoMaxRadius;
+        rebuildRings();
     }
 
     /**
@@ -570,6 +1503,7 @@ public class CycleMenuWidget extends ViewGroup {
     public void setFixedRadius(int fixedRadius) {
         mInitialized = false;
         mFixedRadius = fixedRadius;
+        rebuildRings();
     }
 
     /**
@@ -581,7 +1515,41 @@ public class CycleMenuWidget extends ViewGroup {
     public void setItemsBackgroundTint(@Nullable ColorStateList itemsBackgroundTint) {
         mItemsBackgroundTint = itemsBackgroundTint;
         mAdapter.setItemsBackgroundTint(itemsBackgroundTint);
-        mAdapter.notifyDataSetChanged();
+        for (MenuRing ring : mInnerRings) {
+            ring.getAdapter().setItemsBackgroundTint(itemsBackgroundTint);
+        }
+        notifyItemsChanged();
+        if (mCanvasMenuView != null) {
+            mCanvasMenuView.setItemsBackgroundTint(itemsBackgroundTint);
+        }
+    }
+
+    /**
+     * Applies a color to the icons of the items in cycle menu. Icons are rasterized once with this color
+     * and are shared by all items and widgets.
+     *
+     * @param itemsIconTint color of the icons, {@link Color#TRANSPARENT} to keep colors of the icons
+     */
+    public void setItemsIconTint(@ColorInt int itemsIconTint) {
+        mAdapter.setItemsIconTint(itemsIconTint);
+        for (MenuRing ring : mInnerRings) {
+            ring.getAdapter().setItemsIconTint(itemsIconTint);
+        }
+        notifyItemsChanged();
+        if (mCanvasMenuView != null) {
+            mCanvasMenuView.invalidate();
+        }
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        //icons rasterized for the old density or night mode are dropped, items draw icons again
+        IconAtlas.get().checkConfiguration(getResources());
+        notifyItemsChanged();
+        if (mCanvasMenuView != null) {
+            mCanvasMenuView.invalidate();
+        }
     }
 
     @Override
@@ -603,41 +1571,70 @@ public class CycleMenuWidget extends ViewGroup {
             width = MeasureSpec.getSize(newWidthMeasureSpec);
         }
 
+        mAvailableWidth = width;
+        mAvailableHeight = height;
+        measureRadius(width, height);
+        @SuppressWarnings("Range") int recyclerSizeMeasureSpec = MeasureSpec.makeMeasureSpec(mRecyclerSize, MeasureSpec.EXACTLY);
+        if (!mInitialized && mRecyclerSize > 0 && mItemSize > 0) {
+            applyInitialState();
+        }
+        mItemsView.measure(recyclerSizeMeasureSpec, recyclerSizeMeasureSpec);
+        for (MenuRing ring : mInnerRings) {
+            int ringSizeMeasureSpec = MeasureSpec.makeMeasureSpec(ring.getSize(), MeasureSpec.EXACTLY);
+            ring.getRecyclerView().measure(ringSizeMeasureSpec, ringSizeMeasureSpec);
+        }
+
+        int lCenterIconSize = (int) Math.sqrt(mCircleMinRadius * mCircleMinRadius / 2.0);
+        int centerImageMeasureWidthSpec = MeasureSpec.makeMeasureSpec(lCenterIconSize, MeasureSpec.EXACTLY);
+        int centerImageMeasureHeightSpec = MeasureSpec.makeMeasureSpec(lCenterIconSize, MeasureSpec.EXACTLY);
+        mCenterImage.measure(centerImageMeasureWidthSpec, centerImageMeasureHeightSpec);
+
+        width = resolveSize(width, newWidthMeasureSpec);
+        height = resolveSize(height, newHeightMeasureSpec);
+        setMeasuredDimension(width, height);
+        if (mRevealView != null) {
+            mRevealView.measure(MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY), MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY));
+        }
+    }
+
+    /**
+     * Measure sizes of the items and radius of the items ring for the size of the widget.
+     */
+    private void measureRadius(int width, int height) {
+        if (mItemSize <= 0 && mCanvasItemsEnabled) {
+            mItemSize = (int) (mCanvasMenuView.getItemSize() * CycleLayoutManager.SCALING_COEFFICIENT);
+        }
         if (mItemSize <= 0) {
-            FloatingActionButton buttonItem = (FloatingActionButton) LayoutInflater.from(getContext()).inflate(R.layout.cm_item_fab, this, false);
-            int buttonSpec = MeasureSpec.makeMeasureSpec(1000, MeasureSpec.AT_MOST);
-            measureChild(buttonItem, buttonSpec, buttonSpec);
-            int measuredItemWidth = buttonItem.getMeasuredWidth();
-            int measuredItemHeight = buttonItem.getMeasuredHeight();
-            mItemSize = measuredItemWidth > measuredItemHeight ? measuredItemWidth : measuredItemHeight;
-            if (mItemSize > 0) {
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                    mItemSize = (int) (mItemSize * 1.3);
-                } else {
-                    mItemSize = (int) (mItemSize - mPreLollipopAdditionalButtonsMargin * 2 / 1.5f);
-                }
-            }
+            mItemSize = measureItemSize(R.layout.cm_item_fab);
         }
+        int normalItemsCount = mCanvasItemsEnabled ? 0 : mAdapter.getItemsCount(ITEM_SIZE.NORMAL);
+        if (mNormalItemSize <= 0 && normalItemsCount > 0) {
+            mNormalItemSize = measureItemSize(R.layout.cm_item_fab_normal);
+        }
+        //items of the different sizes take their own lengths of the arc
+        int itemsLength = mItemSize * (mAdapter.getRealItemsCount() - normalItemsCount);
+        int maxItemSize = mItemSize;
+        if (normalItemsCount > 0) {
+            itemsLength += mNormalItemSize * normalItemsCount;
+            maxItemSize = Math.max(maxItemSize, mNormalItemSize);
+        }
+
+        mItemsLength = itemsLength;
+        mMaxItemSize = maxItemSize;
 
         mRecyclerSize = (int) ((width > height ? height : width) - mShadowSize);
-        @SuppressWarnings("Range") int recyclerSizeMeasureSpec = MeasureSpec.makeMeasureSpec(mRecyclerSize, MeasureSpec.EXACTLY);
 
         if ((mScalingType == RADIUS_SCALING_TYPE.FIXED || mAutoMaxRadius > mRecyclerSize || mAutoMaxRadius < 0) && mRecyclerSize > 0) {
             mAutoMaxRadius = mRecyclerSize;
         }
-        if (mAutoMinRadius < mCircleMinRadius + mItemSize) {
-            mAutoMinRadius = mCircleMinRadius + mItemSize;
+        if (mAutoMinRadius < mCircleMinRadius + maxItemSize) {
+            mAutoMinRadius = mCircleMinRadius + maxItemSize;
         }
         if (mAutoMinRadius > mAutoMaxRadius) {
             mAutoMinRadius = mAutoMaxRadius;
         }
         if (mScalingType == RADIUS_SCALING_TYPE.AUTO) {
-            mRecyclerSize = (int) (mItemSize * mAdapter.getRealItemsCount() * 4 / (Math.PI * 2));
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                mRecyclerSize += mItemSize * 5 / 8;
-            } else {
-                mRecyclerSize += mItemSize * 7 / 8;
-            }
+            mRecyclerSize = (int) (itemsLength * 4 / (Math.PI * 2)) + getArcInset(maxItemSize);
             if (mRecyclerSize > mAutoMaxRadius) {
                 mRecyclerSize = mAutoMaxRadius;
             }
@@ -656,16 +1653,185 @@ public class CycleMenuWidget extends ViewGroup {
         }
 
         mOutCircleRadius = mRecyclerSize;
-        mRecyclerView.measure(recyclerSizeMeasureSpec, recyclerSizeMeasureSpec);
+    }
 
-        int lCenterIconSize = (int) Math.sqrt(mCircleMinRadius * mCircleMinRadius / 2.0);
-        int centerImageMeasureWidthSpec = MeasureSpec.makeMeasureSpec(lCenterIconSize, MeasureSpec.EXACTLY);
-        int centerImageMeasureHeightSpec = MeasureSpec.makeMeasureSpec(lCenterIconSize, MeasureSpec.EXACTLY);
-        mCenterImage.measure(centerImageMeasureWidthSpec, centerImageMeasureHeightSpec);
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        //radius and so count of the rings depend on the size
+        rebuildRings();
+    }
 
-        width = resolveSize(width, newWidthMeasureSpec);
-        height = resolveSize(height, newHeightMeasureSpec);
-        setMeasuredDimension(width, height);
+    /**
+     * Rebuild the rings for the current items and ring configuration and lay them out again.
+     * Is called when the items, configuration or size of the widget are changed, rings aren't changed while measuring.
+     */
+    private void rebuildRings() {
+        if (mAvailableWidth <= 0 && mAvailableHeight <= 0) {
+            //widget isn't measured yet, rings are built when it gets the size
+            return;
+        }
+        measureRadius(mAvailableWidth, mAvailableHeight);
+        updateRings(mItemsLength, mMaxItemSize);
+        requestLayout();
+    }
+
+    /**
+     * @param maxItemSize size of the biggest item
+     * @return distance from the side of the recycler view to the arc of the items centers
+     */
+    private int getArcInset(int maxItemSize) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            return maxItemSize * 5 / 8;
+        }
+        return maxItemSize * 7 / 8;
+    }
+
+    /**
+     * @param ringSize    size of the recycler view of the ring
+     * @param maxItemSize size of the biggest item
+     * @return length of the arc on which items of the ring are placed
+     */
+    private double getRingArcLength(int ringSize, int maxItemSize) {
+        return (ringSize - getArcInset(maxItemSize)) * Math.PI / 2;
+    }
+
+    /**
+     * Pick count of the rings and split items between them. Rings are added from the outer one to the center
+     * until all items fit the arcs. Items are split in proportion to the lengths of the arcs, so all rings
+     * are scrolled alike.
+     *
+     * @param itemsLength length of all items on the arc
+     * @param maxItemSize size of the biggest item, is the distance between the neighbour rings
+     */
+    private void updateRings(int itemsLength, int maxItemSize) {
+        int ringsCount = 1;
+        double arcsLength = getRingArcLength(mRecyclerSize, maxItemSize);
+        if (mMultiRingEnabled && !mCanvasItemsEnabled && mScalingType == RADIUS_SCALING_TYPE.AUTO && maxItemSize > 0) {
+            while (arcsLength < itemsLength && ringsCount < MAX_RINGS_COUNT) {
+                int ringSize = mRecyclerSize - maxItemSize * ringsCount;
+                if (ringSize - maxItemSize < mCircleMinRadius) {
+                    //ring would overlap the center circle
+                    break;
+                }
+                arcsLength += getRingArcLength(ringSize, maxItemSize);
+                ringsCount++;
+            }
+        }
+        while (mInnerRings.size() > ringsCount - 1) {
+            MenuRing ring = mInnerRings.remove(mInnerRings.size() - 1);
+            ring.release();
+            removeViewInLayout(ring.getRecyclerView());
+        }
+        while (mInnerRings.size() < ringsCount - 1) {
+            MenuRing ring = new MenuRing(getContext(), mCorner, mRollAnimator, mAdapter);
+            ring.getRecyclerView().setRecyclerListener(mLayerRecyclerListener);
+            ring.setScrollEnabled(mState == STATE.OPEN || mState == STATE.CLOSED);
+            ring.setLayerRotationEnabled(mItemsLayerRotationEnabled);
+            ring.setItemLabelsEnabled(mItemLabelsEnabled, mItemLabelColor);
+            ring.getRecyclerView().setTranslationX(mItemsView.getTranslationX());
+            //inner ring is above the outer rings, so it takes touches near its arc, and under the center image
+            addViewInLayout(ring.getRecyclerView(), indexOfChild(mRecyclerView) + 1 + mInnerRings.size(),
+                    generateDefaultLayoutParams(), true);
+            mInnerRings.add(ring);
+        }
+        int itemsCount = mAdapter.getRealItemsCount();
+        int start = 0;
+        double ringsArcLength = 0;
+        double placedLength = 0;
+        for (int ringIndex = 0; ringIndex < ringsCount; ringIndex++) {
+            int ringSize = mRecyclerSize - maxItemSize * ringIndex;
+            int end = itemsCount;
+            if (ringIndex < ringsCount - 1) {
+                ringsArcLength += getRingArcLength(ringSize, maxItemSize);
+                double ringsItemsLength = itemsLength * ringsArcLength / arcsLength;
+                end = start;
+                //item is placed on the ring if its center fits the share of the ring
+                while (end < itemsCount && placedLength + getItemLength(end) / 2.0 <= ringsItemsLength) {
+                    placedLength += getItemLength(end);
+                    end++;
+                }
+            }
+            if (ringIndex == 0) {
+                if (mAdapter.setRange(0, ringsCount > 1 ? end : -1)) {
+                    mAdapter.notifyDataSetChanged();
+                }
+            } else {
+                MenuRing ring = mInnerRings.get(ringIndex - 1);
+                ring.setSize(ringSize, maxItemSize);
+                ring.setRange(start, end - start);
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * @param position real position of the item
+     * @return length of the item on the arc
+     */
+    private int getItemLength(int position) {
+        return mAdapter.getItemSize(position) == ITEM_SIZE.NORMAL ? mNormalItemSize : mItemSize;
+    }
+
+    /**
+     * @param position real position of the item
+     * @return inner ring which shows the item or null if the item is on the outer ring
+     */
+    @Nullable
+    private MenuRing findInnerRing(int position) {
+        if (mCanvasItemsEnabled) {
+            return null;
+        }
+        for (MenuRing ring : mInnerRings) {
+            if (position >= ring.getStart() && position < ring.getStart() + ring.getItemCount()) {
+                return ring;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Rebuild the rings and rebind items of all rings.
+     */
+    private void notifyItemsChanged() {
+        rebuildRings();
+        mAdapter.notifyDataSetChanged();
+        for (MenuRing ring : mInnerRings) {
+            ring.getAdapter().notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * Move items of all rings into the widget or out of it.
+     */
+    private void setItemsTranslationX(float translationX) {
+        mItemsView.setTranslationX(translationX);
+        for (MenuRing ring : mInnerRings) {
+            ring.getRecyclerView().setTranslationX(translationX);
+        }
+    }
+
+    /**
+     * Measure the item button with the margins between items.
+     *
+     * @param layoutId layout of the item button
+     * @return size of the item on the arc
+     */
+    private int measureItemSize(@LayoutRes int layoutId) {
+        FloatingActionButton buttonItem = (FloatingActionButton) LayoutInflater.from(getContext()).inflate(layoutId, this, false);
+        int buttonSpec = MeasureSpec.makeMeasureSpec(1000, MeasureSpec.AT_MOST);
+        measureChild(buttonItem, buttonSpec, buttonSpec);
+        int measuredItemWidth = buttonItem.getMeasuredWidth();
+        int measuredItemHeight = buttonItem.getMeasuredHeight();
+        int itemSize = measuredItemWidth > measuredItemHeight ? measuredItemWidth : measuredItemHeight;
+        if (itemSize > 0) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                itemSize = (int) (itemSize * CycleLayoutManager.SCALING_COEFFICIENT);
+            } else {
+                itemSize = (int) (itemSize - mPreLollipopAdditionalButtonsMargin * 2 / 1.5f);
+            }
+        }
+        return itemSize;
     }
 
     @Override
@@ -704,28 +1870,56 @@ public class CycleMenuWidget extends ViewGroup {
         }
 
         mCenterImage.layout(centerImageLeft, centerImageTop, centerImageRight, centerImageBottom);
-        mRecyclerView.layout(recyclerLeft, recyclerTop, recyclerRight, recyclerBottom);
-        mRecyclerView.setTranslationX(getWidth());
+        if (mRevealView != null) {
+            mRevealView.layout(0, 0, containerWidth, b - t);
+        }
+        mItemsView.layout(recyclerLeft, recyclerTop, recyclerRight, recyclerBottom);
+        for (MenuRing ring : mInnerRings) {
+            //rings are placed at the same corner as the recycler view
+            int ringLeft = mCorner.isLeftSide() ? recyclerLeft : recyclerRight - ring.getSize();
+            int ringTop = mCorner.isUpSide() ? recyclerTop : recyclerBottom - ring.getSize();
+            ring.getRecyclerView().layout(ringLeft, ringTop, ringLeft + ring.getSize(), ringTop + ring.getSize());
+        }
+        setItemsTranslationX(getWidth());
+        if (mState == STATE.OPEN) {
+            open(false);
+        }
+    }
+
+    /**
+     * Apply scroll type, position and angle offset of the items. Is called while the menu is measured, before the items
+     * are measured and laid out, so the items are laid out in their final places by the first layout.
+     */
+    private void applyInitialState() {
         int countOfVisibleElements = (int) ((mRecyclerSize * Math.PI / 2) / mItemSize);
-        if (!mInitialized && r > 0 && b > 0) {
-            if (mAdapter.getRealItemsCount() > countOfVisibleElements && mScrollType == SCROLL.ENDLESS) {
-                mAdapter.setScrollType(SCROLL.ENDLESS);
-                if (mCurrentPosition == RecyclerView.NO_POSITION) {
-                    mCurrentPosition = Integer.MAX_VALUE / 2 + (mAdapter.getRealItemsCount() - Integer.MAX_VALUE / 2 % mAdapter.getRealItemsCount());
-                }
-            } else {
-                mAdapter.setScrollType(SCROLL.BASIC);
-            }
+        //count of the items on the outer ring
+        int itemsCount = mAdapter.getItemCount();
+        boolean endless = itemsCount > countOfVisibleElements && mScrollType == SCROLL.ENDLESS;
+        mAdapter.setScrollType(endless ? SCROLL.ENDLESS : SCROLL.BASIC);
+        mLayoutManager.setEndless(endless);
+        for (MenuRing ring : mInnerRings) {
+            //ring wraps its items only if there are more of them than the arc shows
+            ring.getLayoutManager().setEndless(mScrollType == SCROLL.ENDLESS);
+        }
+        if (mCurrentPosition >= itemsCount) {
+            //position can be saved by the previous versions as a position of the endless list or items were changed
+            mCurrentPosition = endless ? mCurrentPosition % itemsCount : RecyclerView.NO_POSITION;
+        }
+        if (mCanvasItemsEnabled) {
+            mCanvasMenuView.setEndless(endless);
+            mCanvasMenuView.setFirstItem(mCurrentPosition, mCurrentAngleOffset);
+        } else {
             if (mCurrentPosition != RecyclerView.NO_POSITION) {
                 mLayoutManager.scrollToPosition(mCurrentPosition);
             }
             mLayoutManager.setAdditionalAngleOffset(mCurrentAngleOffset);
-            mRecyclerView.post(runnableRequestLayout);
-            mInitialized = true;
-        }
-        if (mState == STATE.OPEN) {
-            open(false);
+            //layout is requested before the recycler views are measured, so they are laid out once in this pass
+            mLayoutManager.requestLayout();
+            for (MenuRing ring : mInnerRings) {
+                ring.getLayoutManager().requestLayout();
+            }
         }
+        mInitialized = true;
     }
 
     @Override
@@ -733,12 +1927,27 @@ public class CycleMenuWidget extends ViewGroup {
         super.onDraw(canvas);
 
         int mainCircleRadius = mAnimationCircleRadius;
-        buildShadowCorners();
+        if (mainCircleRadius <= 0) {
+            return;
+        }
+        boolean drawShadow = mShadowEnabled && !isOutlineShadowUsed() && mVariableShadowSize > 0;
+        boolean gradientShadow = drawShadow && !mFlatShadow;
+        if (gradientShadow) {
+            buildShadowCorners();
+        }
 
         int rippleRadius = mainCircleRadius < mRippleRadius ? mainCircleRadius : mRippleRadius;
         int circleCenterX = 0;
         int circleCenterY = 0;
-        if (mCorner == CORNER.LEFT_TOP) {
+        if (!gradientShadow) {
+            circleCenterX = mCorner.isLeftSide() ? 0 : getWidth();
+            circleCenterY = mCorner.isUpSide() ? 0 : getHeight();
+            if (drawShadow) {
+                //flat ring around the circle doesn't need to rebuild path and shader on each frame
+                mFlatShadowPaint.setStrokeWidth(mVariableShadowSize);
+                canvas.drawCircle(circleCenterX, circleCenterY, mainCircleRadius + mVariableShadowSize / 2, mFlatShadowPaint);
+            }
+        } else if (mCorner == CORNER.LEFT_TOP) {
             int canvasState = canvas.save();
             canvas.rotate(-90, getWidth(), 0);
             canvas.translate(0, -getWidth());
@@ -767,11 +1976,43 @@ public class CycleMenuWidget extends ViewGroup {
         }
 
         canvas.drawCircle(circleCenterX, circleCenterY, mainCircleRadius, mCirclePaint);
-        canvas.drawCircle(
-                circleCenterX,
-                circleCenterY,
-                rippleRadius,
-                mRipplePaint);
+        if (rippleRadius > 0 && mRipplePaint.getAlpha() > 0) {
+            canvas.drawCircle(
+                    circleCenterX,
+                    circleCenterY,
+                    rippleRadius,
+                    mRipplePaint);
+        }
+    }
+
+    /**
+     * Invalidate only the quarter of the circle (with shadow) placed in the current corner.
+     *
+     * @param radius radius of the changed circle
+     */
+    private void invalidateCorner(float radius) {
+        if (radius <= 0) {
+            return;
+        }
+        //use max shadow size because shadow can be decreased at the same frame
+        int size = (int) Math.ceil(radius + mShadowSize);
+        int width = getWidth();
+        int height = getHeight();
+        if (mCorner.isLeftSide()) {
+            mDirtyRect.left = 0;
+            mDirtyRect.right = Math.min(size, width);
+        } else {
+            mDirtyRect.left = Math.max(width - size, 0);
+            mDirtyRect.right = width;
+        }
+        if (mCorner.isUpSide()) {
+            mDirtyRect.top = 0;
+            mDirtyRect.bottom = Math.min(size, height);
+        } else {
+            mDirtyRect.top = Math.max(height - size, 0);
+            mDirtyRect.bottom = height;
+        }
+        invalidate(mDirtyRect);
     }
 
     /**
@@ -779,6 +2020,15 @@ public class CycleMenuWidget extends ViewGroup {
      */
     private void buildShadowCorners() {
         float mCornerRadius = mAnimationCircleRadius;
+        if (mCornerShadowPath != null
+                && mShadowBuiltForRadius == mCornerRadius
+                && mShadowBuiltForSize == mVariableShadowSize
+                && mShadowBuiltForWidth == getWidth()) {
+            return;
+        }
+        mShadowBuiltForRadius = mCornerRadius;
+        mShadowBuiltForSize = mVariableShadowSize;
+        mShadowBuiltForWidth = getWidth();
 
         RectF innerBounds = new RectF(getWidth() - mCornerRadius, -mCornerRadius, getWidth() + mCornerRadius, mCornerRadius);
         RectF outerBounds = new RectF(innerBounds);
@@ -826,9 +2076,22 @@ public class CycleMenuWidget extends ViewGroup {
      * @return position of the first item
      */
     private int getCurrentPosition() {
+        if (mCanvasItemsEnabled) {
+            return mCanvasMenuView.getCurrentPosition();
+        }
         return mLayoutManager.getCurrentPosition();
     }
 
+    /**
+     * @return offset of the first item in degrees from the items container which is used right now
+     */
+    private double getCurrentItemsAngleOffsetOfItems() {
+        if (mCanvasItemsEnabled) {
+            return mCanvasMenuView.getCurrentItemsAngleOffset();
+        }
+        return mLayoutManager.getCurrentItemsAngleOffset();
+    }
+
     /**
      * Retrieve current offset as an angle (degree) of the first item
      *
@@ -849,6 +2112,97 @@ public class CycleMenuWidget extends ViewGroup {
         }
     }
 
+    /**
+     * Make the item with the id the first item of the menu. Is applied immediately if menu is laid out,
+     * on the next layout otherwise.
+     *
+     * @param itemId id of the menu item
+     * @return false if there is no item with the id
+     */
+    public boolean scrollToItemId(int itemId) {
+        int position = mAdapter.getPositionForId(itemId);
+        if (position == RecyclerView.NO_POSITION) {
+            return false;
+        }
+        scrollToRealPosition(position);
+        return true;
+    }
+
+    /**
+     * Rotate the menu with animation until the item with the id becomes the first item. In the ENDLESS mode
+     * items are rotated in the direction with the shortest path. If menu isn't open the item is set without animation.
+     *
+     * @param itemId id of the menu item
+     * @return false if there is no item with the id
+     */
+    public boolean smoothRotateToItemId(int itemId) {
+        int position = mAdapter.getPositionForId(itemId);
+        if (position == RecyclerView.NO_POSITION) {
+            return false;
+        }
+        MenuRing ring = findInnerRing(position);
+        //items of the inner ring are rotated by the ring
+        CycleLayoutManager layoutManager = ring != null ? ring.getLayoutManager() : mLayoutManager;
+        int ringPosition = ring != null ? position - ring.getStart() : position;
+        int firstPosition = ring != null ? layoutManager.getCurrentPosition() : getCurrentPosition();
+        double anglePerItem = mCanvasItemsEnabled ? mCanvasMenuView.getAnglePerItem() : layoutManager.getAnglePerItem();
+        if (mState != STATE.OPEN || firstPosition == RecyclerView.NO_POSITION || anglePerItem <= 0) {
+            scrollToRealPosition(position);
+            return true;
+        }
+        //rotation which moves the item from its current angle to the angle of the first item
+        double degrees;
+        double period;
+        if (mCanvasItemsEnabled) {
+            degrees = 90 - mCanvasMenuView.getPositionSpan(position) / 2.0 - mCanvasMenuView.getPositionAngle(position);
+            period = mCanvasMenuView.getItemsAngle();
+        } else {
+            degrees = 90 - layoutManager.getPositionSpan(ringPosition) / 2.0 - layoutManager.getPositionAngle(ringPosition);
+            period = layoutManager.getItemsAngle();
+        }
+        boolean endless = mCanvasItemsEnabled ? mAdapter.getScrollType() == SCROLL.ENDLESS : layoutManager.isWrapping();
+        if (endless && period > 0) {
+            //the same item is repeated after all items, pick the nearest of them
+            degrees %= period;
+            if (degrees > period / 2) {
+                degrees -= period;
+            } else if (degrees < -period / 2) {
+                degrees += period;
+            }
+        }
+        if (mCanvasItemsEnabled) {
+            mCanvasMenuView.smoothRotateBy(degrees);
+        } else {
+            RecyclerView recyclerView = ring != null ? ring.getRecyclerView() : mRecyclerView;
+            recyclerView.smoothScrollBy(0, (int) Math.round(layoutManager.getScrollDistanceForAngle(degrees)));
+        }
+        return true;
+    }
+
+    /**
+     * Make the item the first item of the menu.
+     *
+     * @param position real position of the item
+     */
+    private void scrollToRealPosition(int position) {
+        MenuRing ring = findInnerRing(position);
+        if (ring != null) {
+            //position of the menu is the position of the outer ring, it isn't changed
+            ring.getLayoutManager().setAdditionalAngleOffset(UNDEFINED_ANGLE_VALUE);
+            ring.getLayoutManager().scrollToPosition(position - ring.getStart());
+            return;
+        }
+        mCurrentAngleOffset = UNDEFINED_ANGLE_VALUE;
+        if (mCanvasItemsEnabled) {
+            mCurrentPosition = position;
+            mCanvasMenuView.setFirstItem(position, UNDEFINED_ANGLE_VALUE);
+            return;
+        }
+        mCurrentPosition = position;
+        mLayoutManager.setAdditionalAngleOffset(UNDEFINED_ANGLE_VALUE);
+        mLayoutManager.scrollToPosition(position);
+    }
+
     /**
      * Set current offset of the firstItem as an angle (in degrees)
      *
@@ -877,24 +2231,151 @@ public class CycleMenuWidget extends ViewGroup {
         mStateSaveListener = stateSaveListener;
     }
 
-    @SuppressWarnings("unused")
+    /**
+     * Bind the menu to the state of the row in the registry, is called when the row is bound. State of the previous row
+     * is saved, state of the row is applied: position and angle offset of the first item and open state.
+     * Menu saves its position when it's detached and its open state when it's changed. Row without kept state
+     * gets the first item at the start and the closed menu.
+     *
+     * @param registry registry of the states of the rows
+     * @param key      stable key of the row
+     */
+    public void bindState(@NonNull CycleMenuStateRegistry registry, long key) {
+        bindState(registry, key, false);
+    }
+
+    /**
+     * Bind the menu to the state of the row in the registry, see {@link #bindState(CycleMenuStateRegistry, long)}.
+     *
+     * @param registry    registry of the states of the rows
+     * @param key         stable key of the row
+     * @param defaultOpen open state of the row without kept state
+     */
+    public void bindState(@NonNull CycleMenuStateRegistry registry, long key, boolean defaultOpen) {
+        checkNonNullParams(registry, FIELD_NAME_FOR_EXCEPTION_STATE_REGISTRY);
+        saveBoundState();
+        mStateRegistry = null;
+        int position = registry.getPosition(key);
+        mCurrentPosition = position == RecyclerView.NO_POSITION ? 0 : position;
+        mCurrentAngleOffset = registry.getAngleOffset(key);
+        mInitialized = false;
+        requestLayout();
+        if (registry.isOpen(key, defaultOpen)) {
+            open(false);
+        } else {
+            close(false);
+        }
+        mStateRegistry = registry;
+        mStateKey = key;
+    }
+
+    /**
+     * Stop saving the state of the menu to the registry.
+     */
+    public void unbindState() {
+        saveBoundState();
+        mStateRegistry = null;
+    }
+
+    /**
+     * Save the state of the menu to the registry it's bound to.
+     */
+    private void saveBoundState() {
+        if (mStateRegistry == null) {
+            return;
+        }
+        int currentPosition = getCurrentPosition();
+        //position which isn't applied yet is saved instead of the items of the previous row
+        if (mInitialized && currentPosition != RecyclerView.NO_POSITION) {
+            mCurrentPosition = currentPosition;
+            mCurrentAngleOffset = getCurrentItemsAngleOffsetOfItems();
+        }
+        mStateRegistry.put(mStateKey, mCurrentPosition, mCurrentAngleOffset, isOpenState());
+    }
+
+    /**
+     * @return true if menu is open or is opening
+     */
+    private boolean isOpenState() {
+        return mState == STATE.OPEN || mState == STATE.IN_OPEN_PROCESS;
+    }
+
+    /**
+     * Set listener of the items rotation. It is called at most once per frame while items are rotated.
+     *
+     * @param listener OnRotationListener
+     */
+    public void setOnRotationListener(@Nullable OnRotationListener listener) {
+        mOnRotationListener = listener;
+        mSlotItemPosition = RecyclerView.NO_POSITION;
+    }
+
+    /**
+     * Set slot which item is reported by {@link OnRotationListener#onSlotItemChanged(int)}.
+     * Angle is measured from the horizontal side of the corner, first item is placed near 90 degrees.
+     *
+     * @param angle angle of the slot in degrees, 45 by default
+     */
+    public void setRotationSlotAngle(double angle) {
+        mRotationSlotAngle = angle;
+        mSlotItemPosition = RecyclerView.NO_POSITION;
+    }
+
+    /**
+     * Report current rotation and item in the slot to the rotation listener.
+     */
+    private void dispatchRotation() {
+        int count = mAdapter.getRealItemsCount();
+        int firstPosition = getCurrentPosition();
+        double anglePerItem = mCanvasItemsEnabled ? mCanvasMenuView.getAnglePerItem() : mLayoutManager.getAnglePerItem();
+        if (mOnRotationListener == null || count == 0 || firstPosition == RecyclerView.NO_POSITION || anglePerItem <= 0) {
+            return;
+        }
+        double angleOffset = getCurrentItemsAngleOffsetOfItems();
+        mOnRotationListener.onRotationChanged(firstPosition, angleOffset);
+
+        //angles of the items are known, so item in the slot is found without the views
+        int slotPosition = mCanvasItemsEnabled
+                ? mCanvasMenuView.getPositionAtAngle(mRotationSlotAngle)
+                : mLayoutManager.getPositionAtAngle(mRotationSlotAngle);
+        if (slotPosition != mSlotItemPosition) {
+            mSlotItemPosition = slotPosition;
+            mOnRotationListener.onSlotItemChanged(slotPosition);
+        }
+    }
+
     private void setRippleAlpha(int rippleAlpha) {
+        if (mRipplePaint.getAlpha() == rippleAlpha) {
+            return;
+        }
         mRipplePaint.setAlpha(rippleAlpha);
-        invalidate();
+        invalidateCorner(Math.min(mRippleRadius, mAnimationCircleRadius));
     }
 
     @Override
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
+        if (mItemsModel != null) {
+            //model could be updated while the menu was detached
+            mItemsModel.addListener(mItemsModelListener);
+            mAdapter.setItemsSnapshot(mItemsModel.getItems());
+        }
         mInitialized = false;
         mLayoutManager.requestLayout();
-        mAdapter.notifyDataSetChanged();
+        notifyItemsChanged();
     }
 
     @Override
     protected void onDetachedFromWindow() {
+        if (mItemsModel != null) {
+            mItemsModel.removeListener(mItemsModelListener);
+        }
+        releaseAnimationLayers();
+        removeCallbacks(mRotationDispatchRunnable);
+        mRotationDispatchPending = false;
+        saveBoundState();
         mCurrentPosition = getCurrentPosition();
-        mCurrentAngleOffset = mLayoutManager.getCurrentItemsAngleOffset();
+        mCurrentAngleOffset = getCurrentItemsAngleOffsetOfItems();
         if (mStateSaveListener != null) {
             mStateSaveListener.saveState(mCurrentPosition, mCurrentAngleOffset);
         }
@@ -902,15 +2383,51 @@ public class CycleMenuWidget extends ViewGroup {
             close(false);
         }
         if (mState == STATE.IN_OPEN_PROCESS) {
-            mState = STATE.OPEN;
-            sendState();
-            mAnimationCircleRadius = mOutCircleRadius;
-            scrollEnabled(true);
+            open(false);
         }
         super.onDetachedFromWindow();
     }
 
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState savedState = new SavedState(super.onSaveInstanceState());
+        int currentPosition = getCurrentPosition();
+        if (currentPosition != RecyclerView.NO_POSITION) {
+            savedState.mPosition = currentPosition;
+            savedState.mAngleOffset = getCurrentItemsAngleOffsetOfItems();
+        } else {
+            //menu isn't laid out yet, state which wasn't applied is saved
+            savedState.mPosition = mCurrentPosition;
+            savedState.mAngleOffset = mCurrentAngleOffset;
+        }
+        savedState.mOpen = isOpenState();
+        return savedState;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+        //state is applied when the menu is measured, so items are laid out in their places by the first layout
+        mCurrentPosition = savedState.mPosition;
+        mCurrentAngleOffset = savedState.mAngleOffset;
+        mInitialized = false;
+        if (savedState.mOpen) {
+            open(false);
+        } else if (mState != STATE.CLOSED) {
+            close(false);
+        }
+        requestLayout();
+    }
+
     private void sendState() {
+        if (mStateRegistry != null) {
+            mStateRegistry.putOpen(mStateKey, isOpenState());
+        }
         if (mOnStateChangeListener != null) {
             mOnStateChangeListener.onStateChanged(mState);
         }
@@ -924,16 +2441,19 @@ public class CycleMenuWidget extends ViewGroup {
     private void scrollEnabled(boolean enabled) {
         mRecyclerView.setTouchEnabled(enabled);
         mLayoutManager.setScrollEnabled(enabled);
+        for (MenuRing ring : mInnerRings) {
+            ring.setScrollEnabled(enabled);
+        }
+        if (mCanvasMenuView != null) {
+            mCanvasMenuView.setScrollEnabled(enabled);
+        }
     }
 
     /**
-     * Change menu mState open -> close, close -> open if don't doing open/close right now.
+     * Change menu mState open -> close, close -> open. Running open/close is reversed from its current frame.
      */
     private void changeMenuState() {
-        if (mState == STATE.IN_OPEN_PROCESS || mState == STATE.IN_CLOSE_PROCESS) {
-            return;
-        }
-        if (mState == STATE.OPEN) {
+        if (mState == STATE.OPEN || mState == STATE.IN_OPEN_PROCESS) {
             close(true);
             return;
         }
@@ -941,51 +2461,41 @@ public class CycleMenuWidget extends ViewGroup {
     }
 
     /**
-     * Open cycle menu.
+     * Open cycle menu. If menu is closing right now then closing is reversed from its current frame.
      *
      * @param animated - indicate if need to open cycle menu with animation (true), immediately otherwise
      */
     public void open(final boolean animated) {
-        int centerCrossImageRotateAngle = -45;
         if (animated) {
+            if (mState == STATE.IN_OPEN_PROCESS) {
+                return;
+            }
+            onAnimationStarted();
+            //items are still on the circle if closing didn't reach the circle animation
+            boolean itemsRollingOut = mState == STATE.IN_CLOSE_PROCESS && !isCircleAnimationRunning();
             scrollEnabled(false);
             mState = STATE.IN_OPEN_PROCESS;
             sendState();
             mCenterImage.animate()
-                    .rotation(centerCrossImageRotateAngle)
-                    .setInterpolator(new OvershootInterpolator(2))
+                    .rotation(CENTER_IMAGE_OPEN_ANGLE)
+                    .setInterpolator(mCenterImageInterpolator)
                     .setDuration(CENTER_IMAGE_ROTATE_DURATION)
                     .start();
-
-            ObjectAnimator circleRadiusAnimator = ObjectAnimator.ofInt(this, CIRCLE_RADIUS_ANIMATOR_FIELD_NAME, mCircleMinRadius, mOutCircleRadius);
-            circleRadiusAnimator.addListener(new AnimatorListenerAdapter() {
-                @Override
-                public void onAnimationEnd(Animator animation) {
-                    mRecyclerView.setTranslationX(0);
-                    mLayoutManager.rollInItemsWithAnimation(new CycleLayoutManager.OnCompleteCallback() {
-                        @Override
-                        public void onComplete() {
-                            mState = STATE.OPEN;
-                            sendState();
-                            scrollEnabled(true);
-                            if (mOnStateChangeListener != null) {
-                                mOnStateChangeListener.onOpenComplete();
-                            }
-                        }
-                    });
-                }
-            });
-            ObjectAnimator shadowAnimator = ObjectAnimator.ofFloat(this, SHADOW_SIZE_ANIMATOR_FIELD_NAME, mShadowSize * SHADOW_SIZE_MIN_COEFFICIENT, mShadowSize);
-
-            AnimatorSet animatorSet = new AnimatorSet();
-            animatorSet.setDuration(REVEAL_ANIMATION_DURATION);
-            animatorSet.playTogether(circleRadiusAnimator, shadowAnimator);
-            animatorSet.start();
+            if (itemsRollingOut) {
+                mRollAnimator.rollIn(mRollInCompleteCallback);
+                return;
+            }
+            animateCircle(true);
         } else {
+            cancelReveal();
+            mCircleAnimator.cancel();
+            mRollAnimator.reset();
+            releaseAnimationLayers();
             mVariableShadowSize = mShadowSize;
-            mCenterImage.setRotation(centerCrossImageRotateAngle);
+            mCenterImage.setRotation(CENTER_IMAGE_OPEN_ANGLE);
             mAnimationCircleRadius = mOutCircleRadius;
-            mRecyclerView.setTranslationX(0);
+            updateOutline();
+            setItemsTranslationX(0);
             scrollEnabled(true);
             mState = STATE.OPEN;
             sendState();
@@ -994,117 +2504,285 @@ public class CycleMenuWidget extends ViewGroup {
     }
 
     /**
-     * Close cycle menu.
+     * Close cycle menu. If menu is opening right now then opening is reversed from its current frame.
      *
      * @param animated - indicate if need to close cycle menu with animation (true), immediately otherwise
      */
     public void close(boolean animated) {
         if (animated) {
+            if (mState == STATE.IN_CLOSE_PROCESS) {
+                return;
+            }
+            onAnimationStarted();
+            //items are not shown yet if opening didn't finish the circle animation
+            boolean circleOpening = mState == STATE.IN_OPEN_PROCESS && isCircleAnimationRunning();
             scrollEnabled(false);
             mState = STATE.IN_CLOSE_PROCESS;
             sendState();
             mCenterImage.animate()
                     .rotation(0)
-                    .setInterpolator(new OvershootInterpolator(2))
+                    .setInterpolator(mCenterImageInterpolator)
                     .setDuration(CENTER_IMAGE_ROTATE_DURATION)
                     .start();
-            mLayoutManager.rollOutItemsWithAnimation(new CycleLayoutManager.OnCompleteCallback() {
-                @Override
-                public void onComplete() {
-                    innerAnimatedClose();
-                }
-            });
+            if (circleOpening) {
+                animateCircle(false);
+                return;
+            }
+            mRollAnimator.rollOut(mRollOutCompleteCallback);
         } else {
+            cancelReveal();
+            mCircleAnimator.cancel();
+            mRollAnimator.reset();
+            releaseAnimationLayers();
+            setItemsTranslationX(getWidth());
             scrollEnabled(true);
             mState = STATE.CLOSED;
             sendState();
             mVariableShadowSize = mShadowSize * SHADOW_SIZE_MIN_COEFFICIENT;
             mCenterImage.setRotation(0);
             mAnimationCircleRadius = mCircleMinRadius;
+            updateOutline();
             invalidate();
         }
     }
 
     private void innerAnimatedClose() {
-        ObjectAnimator circleRadiusAnimator = ObjectAnimator.ofInt(this, CIRCLE_RADIUS_ANIMATOR_FIELD_NAME, mOutCircleRadius, mCircleMinRadius);
-        circleRadiusAnimator.addListener(new AnimatorListenerAdapter() {
+        setItemsTranslationX(getWidth());
+        animateCircle(false);
+    }
+
+    /**
+     * Animate the circle from its current radius to the open or closed size.
+     * Duration is proportional to the distance, so reversed animation has the same speed.
+     *
+     * @param opening true to animate to the open size, false to the closed size
+     */
+    private void animateCircle(boolean opening) {
+        int fromRadius = getCurrentCircleRadius();
+        int toRadius = opening ? mOutCircleRadius : mCircleMinRadius;
+        long duration = REVEAL_ANIMATION_DURATION;
+        if (!mCircleAnimated) {
+            duration = 0;
+        } else if (mOutCircleRadius > mCircleMinRadius) {
+            duration = REVEAL_ANIMATION_DURATION * Math.abs(toRadius - fromRadius) / (mOutCircleRadius - mCircleMinRadius);
+        }
+        mCircleOpening = opening;
+        //circular reveal can't be started on the detached or not laid out view, circle is animated by the widget then
+        if (isRenderThreadRevealUsed() && ViewCompat.isAttachedToWindow(this) && getWidth() > 0 && getHeight() > 0
+                && mRevealView.getWidth() > 0 && mRevealView.getHeight() > 0) {
+            startReveal(fromRadius, toRadius, duration);
+            return;
+        }
+        mCircleAnimator.start(fromRadius, toRadius, duration);
+    }
+
+    private boolean isCircleAnimationRunning() {
+        return mRevealAnimator != null || mCircleAnimator.isRunning();
+    }
+
+    /**
+     * @return radius of the circle on the current frame, including running reveal
+     */
+    private int getCurrentCircleRadius() {
+        if (mRevealAnimator == null) {
+            return mAnimationCircleRadius;
+        }
+        float fraction = mRevealDuration > 0
+                ? (float) (AnimationUtils.currentAnimationTimeMillis() - mRevealStartTime) / mRevealDuration
+                : 1f;
+        fraction = Math.max(0f, Math.min(1f, fraction));
+        return (int) (mRevealFromRadius + (mRevealToRadius - mRevealFromRadius) * mCircleInterpolator.getInterpolation(fraction));
+    }
+
+    private void onCircleAnimationEnd() {
+        if (mCircleOpening) {
+            setItemsTranslationX(0);
+            mRollAnimator.rollIn(mRollInCompleteCallback);
+        } else {
+            mState = STATE.CLOSED;
+            sendState();
+            onAnimationFinished();
+            if (mOnStateChangeListener != null) {
+                mOnStateChangeListener.onCloseComplete();
+            }
+        }
+    }
+
+    private void onRollInComplete() {
+        mState = STATE.OPEN;
+        sendState();
+        scrollEnabled(true);
+        onAnimationFinished();
+        if (mOnStateChangeListener != null) {
+            mOnStateChangeListener.onOpenComplete();
+        }
+    }
+
+    /**
+     * Build animators and callbacks once. They are reused for each open/close and touch.
+     */
+    private void initAnimators() {
+        mCircleAnimator = new ReusableAnimator(new ReusableAnimator.ValueSetter() {
+            @Override
+            public void setValue(float value) {
+                mQualityPolicy.onAnimationFrame();
+                setAnimationCircleRadius((int) value);
+            }
+        }, REVEAL_ANIMATION_DURATION);
+        mCircleAnimator.setInterpolator(mCircleInterpolator);
+        mCircleAnimator.setOnEndListener(new ReusableAnimator.OnEndListener() {
+            @Override
+            public void onEnd() {
+                onCircleAnimationEnd();
+            }
+        });
+        mRippleRadiusAnimator = new ReusableAnimator(new ReusableAnimator.ValueSetter() {
+            @Override
+            public void setValue(float value) {
+                setRippleRadius((int) value);
+            }
+        }, RIPPLE_REVEAL_DURATION);
+        mRippleAlphaAnimator = new ReusableAnimator(new ReusableAnimator.ValueSetter() {
+            @Override
+            public void setValue(float value) {
+                setRippleAlpha((int) value);
+            }
+        }, RIPPLE_ALPHA_DURATION);
+        mRollInCompleteCallback = new ItemsRollAnimator.OnCompleteCallback() {
+            @Override
+            public void onComplete() {
+                onRollInComplete();
+            }
+        };
+        mRollOutCompleteCallback = new ItemsRollAnimator.OnCompleteCallback() {
+            @Override
+            public void onComplete() {
+                innerAnimatedClose();
+            }
+        };
+        mRevealListener = new AnimatorListenerAdapter() {
+            private boolean mCanceled = false;
+
+            @Override
+            public void onAnimationStart(Animator animation) {
+                mCanceled = false;
+            }
+
+            @Override
+            public void onAnimationCancel(Animator animation) {
+                mCanceled = true;
+            }
+
             @Override
             public void onAnimationEnd(Animator animation) {
-                mState = STATE.CLOSED;
-                sendState();
-                if (mOnStateChangeListener != null) {
-                    mOnStateChangeListener.onCloseComplete();
+                if (mCanceled || animation != mRevealAnimator) {
+                    return;
                 }
+                mRevealAnimator = null;
+                if (mCircleOpening) {
+                    //widget takes drawing of the full circle back
+                    mAnimationCircleRadius = mOutCircleRadius;
+                    mVariableShadowSize = mShadowSize;
+                    updateOutline();
+                    invalidate();
+                }
+                mRevealView.setVisibility(INVISIBLE);
+                onCircleAnimationEnd();
             }
-        });
-        ObjectAnimator shadowAnimator = ObjectAnimator.ofFloat(this, SHADOW_SIZE_ANIMATOR_FIELD_NAME, mShadowSize, mShadowSize * SHADOW_SIZE_MIN_COEFFICIENT);
+        };
+    }
+
+    /**
+     * Run open/close animation of the circle as a circular reveal on the RenderThread.
+     * Widget itself draws the circle in closed size while reveal view is visible.
+     * Direction of the reveal is specified by mCircleOpening.
+     *
+     * @param fromRadius start radius of the circle
+     * @param toRadius   end radius of the circle
+     * @param duration   duration of the reveal
+     */
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private void startReveal(int fromRadius, int toRadius, long duration) {
+        cancelReveal();
+        //widget draws circle in the min size, reveal view draws the rest.
+        mAnimationCircleRadius = mCircleMinRadius;
+        mVariableShadowSize = mShadowSize * SHADOW_SIZE_MIN_COEFFICIENT;
+        updateOutline();
+        invalidate();
+        mRevealView.setCorner(mCorner);
+        mRevealView.setRadius(mOutCircleRadius);
+        mRevealView.setShadowElevation(isOutlineShadowUsed() && mShadowEnabled ? mOutlineShadowElevation : 0);
+        mRevealView.setVisibility(VISIBLE);
+        //circular reveal is a RenderThread animator which can't be restarted, so only it is created per animation.
+        mRevealFromRadius = fromRadius;
+        mRevealToRadius = toRadius;
+        mRevealDuration = duration;
+        mRevealStartTime = AnimationUtils.currentAnimationTimeMillis();
+        mRevealAnimator = mRevealView.createReveal(fromRadius, toRadius);
+        mRevealAnimator.setDuration(duration);
+        mRevealAnimator.setInterpolator(mCircleInterpolator);
+        mRevealAnimator.addListener(mRevealListener);
+        mRevealAnimator.start();
+    }
 
-        AnimatorSet animatorSet = new AnimatorSet();
-        animatorSet.setDuration(REVEAL_ANIMATION_DURATION);
-        animatorSet.playTogether(circleRadiusAnimator, shadowAnimator);
-        animatorSet.start();
-        mRecyclerView.setTranslationX(getWidth());
+    private void cancelReveal() {
+        if (mRevealAnimator != null) {
+            mRevealAnimator.cancel();
+            mRevealAnimator = null;
+        }
+        if (mRevealView != null) {
+            mRevealView.setVisibility(INVISIBLE);
+        }
     }
 
-    @SuppressWarnings("unused")
     private void setRippleRadius(int rippleRadius) {
+        int oldRippleRadius = mRippleRadius;
         mRippleRadius = rippleRadius;
         if (mShouldOpen && rippleRadius >= mCircleMinRadius) {
             mShouldOpen = false;
             changeMenuState();
         }
-        invalidate();
-    }
-
-    @SuppressWarnings("unused")
-    private void setVariableShadowSize(float variableShadowSize) {
-        mVariableShadowSize = variableShadowSize;
+        if (mRipplePaint.getAlpha() > 0) {
+            invalidateCorner(Math.min(Math.max(oldRippleRadius, rippleRadius), mAnimationCircleRadius));
+        }
     }
 
-    @SuppressWarnings("unused")
     private void setAnimationCircleRadius(int animationCircleRadius) {
+        int oldAnimationCircleRadius = mAnimationCircleRadius;
         mAnimationCircleRadius = animationCircleRadius;
-        invalidate();
+        if (!isOutlineShadowUsed()) {
+            //gradient shadow grows together with the circle
+            float minShadowSize = mShadowSize * SHADOW_SIZE_MIN_COEFFICIENT;
+            float fraction = mOutCircleRadius > mCircleMinRadius
+                    ? (float) (animationCircleRadius - mCircleMinRadius) / (mOutCircleRadius - mCircleMinRadius)
+                    : 1f;
+            mVariableShadowSize = minShadowSize + (mShadowSize - minShadowSize) * fraction;
+        }
+        updateOutline();
+        invalidateCorner(Math.max(oldAnimationCircleRadius, animationCircleRadius));
     }
 
     private class CenterImageTouchListener implements OnTouchListener {
         private boolean wasOutside = false;
         private Rect rect = new Rect();
-        private ObjectAnimator mRippleSizeAnimator;
-        private ObjectAnimator mRippleAlphaAnimator;
 
         private void cancelRippleAnimator() {
-            if (mRippleSizeAnimator != null) {
-                mRippleSizeAnimator.cancel();
-            }
-            if (mRippleAlphaAnimator != null) {
-                mRippleAlphaAnimator.cancel();
-            }
-        }
-
-        private void startRippleSizeAnimator(int fromRadius, int toRadius) {
-            mRippleSizeAnimator = ObjectAnimator.ofInt(CycleMenuWidget.this, RIPPLE_RADIUS_ANIMATOR_FIELD_NAME, fromRadius, toRadius).setDuration(RIPPLE_REVEAL_DURATION);
-            mRippleSizeAnimator.start();
-        }
-
-        private void startRippleAlphaAnimator(int fromAlpha, int toAlpha) {
-            mRippleAlphaAnimator = ObjectAnimator.ofInt(CycleMenuWidget.this, RIPPLE_ALPHA_ANIMATOR_FIELD_NAME, fromAlpha, toAlpha).setDuration(RIPPLE_ALPHA_DURATION);
-            mRippleAlphaAnimator.start();
+            mRippleRadiusAnimator.cancel();
+            mRippleAlphaAnimator.cancel();
         }
 
         @Override
         public boolean onTouch(View v, MotionEvent event) {
             mShouldOpen = false;
-            if (mState == STATE.IN_OPEN_PROCESS || mState == STATE.IN_CLOSE_PROCESS) {
-                return false;
-            }
             switch (event.getActionMasked()) {
                 case MotionEvent.ACTION_DOWN:
                     cancelRippleAnimator();
                     rect.set(v.getLeft(), v.getTop(), v.getRight(), v.getBottom());
                     wasOutside = false;
-                    setRippleAlpha(Color.alpha(mRippleColor));
-                    startRippleSizeAnimator(0, mAnimationCircleRadius);
+                    if (mRippleEnabled) {
+                        setRippleAlpha(Color.alpha(mRippleColor));
+                        mRippleRadiusAnimator.start(0, mAnimationCircleRadius);
+                    }
                     break;
                 case MotionEvent.ACTION_MOVE:
                     if (!rect.contains(v.getLeft() + (int) event.getX(), v.getTop() + (int) event.getY())) {
@@ -1115,14 +2793,20 @@ public class CycleMenuWidget extends ViewGroup {
                     wasOutside = true;
                 case MotionEvent.ACTION_UP:
                     cancelRippleAnimator();
+                    if (!mRippleEnabled) {
+                        if (!wasOutside) {
+                            changeMenuState();
+                        }
+                        break;
+                    }
                     if (wasOutside) {
-                        startRippleSizeAnimator(mAnimationCircleRadius, 0);
+                        mRippleRadiusAnimator.start(mAnimationCircleRadius, 0);
                     } else {
                         if (mAnimationCircleRadius == mRippleRadius) {
                             mRippleRadius = mOutCircleRadius;
                             changeMenuState();
                         } else {
-                            startRippleSizeAnimator(mRippleRadius, mOutCircleRadius);
+                            mRippleRadiusAnimator.start(mRippleRadius, mOutCircleRadius);
                             if (mState == STATE.CLOSED) {
                                 mShouldOpen = true;
                             } else {
@@ -1130,7 +2814,7 @@ public class CycleMenuWidget extends ViewGroup {
                             }
                         }
                     }
-                    startRippleAlphaAnimator(Color.alpha(mRippleColor), 0);
+                    mRippleAlphaAnimator.start(Color.alpha(mRippleColor), 0);
                     break;
                 default:
             }
@@ -1138,6 +2822,47 @@ public class CycleMenuWidget extends ViewGroup {
         }
     }
 
+    /**
+     * Position and angle offset of the first item and open state of the menu.
+     */
+    static class SavedState extends BaseSavedState {
+
+        private int mPosition = RecyclerView.NO_POSITION;
+        private double mAngleOffset = UNDEFINED_ANGLE_VALUE;
+        private boolean mOpen;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            mPosition = in.readInt();
+            mAngleOffset = in.readDouble();
+            mOpen = in.readInt() != 0;
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(mPosition);
+            out.writeDouble(mAngleOffset);
+            out.writeInt(mOpen ? 1 : 0);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
     private void checkNonNullParams(Object param, String paramName) {
         if (param == null) {
             throw new IllegalArgumentException("Parameter \"" + paramName + "\" can't be null.");
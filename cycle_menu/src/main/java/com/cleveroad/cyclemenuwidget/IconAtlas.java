@@ -0,0 +1,228 @@
+package com.cleveroad.cyclemenuwidget;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Shared atlas of the rasterized menu icons. Each distinct icon (drawable constant state, size and tint)
+ * is drawn once into the bitmap page, so vector icons are not rendered again by each item and each widget.
+ * Pages are never rewritten: views which aren't redrawn may still draw the icons from them, so when the atlas
+ * is full or the configuration is changed new pages are allocated and the old ones are left to be collected.
+ * Is shared by all widgets and is accessed only from the main thread.
+ */
+class IconAtlas {
+
+    /**
+     * Size of the one bitmap page of the atlas.
+     */
+    private static final int PAGE_SIZE = 512;
+    /**
+     * Max count of the pages. When all of them are full atlas is cleared and icons are rasterized again into new pages.
+     */
+    private static final int MAX_PAGES = 2;
+    /**
+     * Space between icons on the page, so filtered icons don't bleed into each other.
+     */
+    private static final int ICON_PADDING = 1;
+
+    private static IconAtlas sInstance;
+
+    /**
+     * Place of the rasterized icon in the atlas.
+     */
+    static class Entry {
+        private Bitmap mPage;
+        private Rect mBounds = new Rect();
+
+        Bitmap getPage() {
+            return mPage;
+        }
+
+        Rect getBounds() {
+            return mBounds;
+        }
+    }
+
+    private static class Key {
+        private Drawable.ConstantState mState;
+        private int mSize;
+        private int mTint;
+
+        Key set(Drawable.ConstantState state, int size, int tint) {
+            mState = state;
+            mSize = size;
+            mTint = tint;
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return mSize == key.mSize && mTint == key.mTint && mState == key.mState;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(mState);
+            result = 31 * result + mSize;
+            result = 31 * result + mTint;
+            return result;
+        }
+    }
+
+    private HashMap<Key, Entry> mEntries = new HashMap<>();
+    private Key mLookupKey = new Key();
+    private List<Bitmap> mPages = new ArrayList<>();
+    private Canvas mPageCanvas = new Canvas();
+    /**
+     * Current page and the shelf on it where the next icon is placed.
+     */
+    private int mPageIndex = -1;
+    private int mShelfX;
+    private int mShelfY;
+    private int mShelfHeight;
+    /**
+     * Is increased when atlas is cleared. Holders of the entries should obtain them again if generation is changed.
+     */
+    private int mGeneration;
+    /**
+     * Configuration which icons were rasterized for.
+     */
+    private int mDensityDpi;
+    private int mUiMode;
+
+    /**
+     * @return shared atlas
+     */
+    static IconAtlas get() {
+        if (sInstance == null) {
+            sInstance = new IconAtlas();
+        }
+        return sInstance;
+    }
+
+    private IconAtlas() {
+    }
+
+    /**
+     * @return generation of the atlas, is changed each time atlas is cleared
+     */
+    int getGeneration() {
+        return mGeneration;
+    }
+
+    /**
+     * Find icon in the atlas or rasterize it. Atlas is cleared if the configuration of the resources differs
+     * from the one the icons were rasterized for.
+     *
+     * @param resources resources of the caller's context, icon is rasterized with them
+     * @param icon      icon to rasterize
+     * @param size size of the icon in pixels
+     * @param tint color to tint the icon, {@link Color#TRANSPARENT} to keep colors of the icon
+     * @return entry of the icon or null if icon can't be shared (has no constant state) or is too big
+     */
+    @Nullable
+    Entry obtain(Resources resources, @Nullable Drawable icon, int size, int tint) {
+        checkConfiguration(resources);
+        if (icon == null || size <= 0 || size + ICON_PADDING > PAGE_SIZE) {
+            return null;
+        }
+        Drawable.ConstantState state = icon.getConstantState();
+        if (state == null) {
+            return null;
+        }
+        Entry entry = mEntries.get(mLookupKey.set(state, size, tint));
+        if (entry != null) {
+            return entry;
+        }
+        entry = allocate(size);
+        //draw private copy, so bounds and color filter of the icon which is used by the client are not changed
+        Drawable copy = state.newDrawable(resources).mutate();
+        if (tint != Color.TRANSPARENT) {
+            copy.setColorFilter(new PorterDuffColorFilter(tint, PorterDuff.Mode.SRC_IN));
+        }
+        copy.setBounds(entry.mBounds);
+        mPageCanvas.setBitmap(entry.mPage);
+        copy.draw(mPageCanvas);
+        mPageCanvas.setBitmap(null);
+        mEntries.put(new Key().set(state, size, tint), entry);
+        return entry;
+    }
+
+    /**
+     * Remove all icons. Pages are dropped, not erased: entries which are still held draw the old icons
+     * until their holders obtain them again, pages are collected when no one uses them.
+     */
+    void clear() {
+        mEntries.clear();
+        mPages.clear();
+        mPageIndex = -1;
+        mShelfX = 0;
+        mShelfY = 0;
+        mShelfHeight = 0;
+        mGeneration++;
+    }
+
+    /**
+     * Clear the atlas if density or ui mode of the resources was changed since the icons were rasterized.
+     *
+     * @param resources resources of the current context
+     * @return true if the atlas was cleared
+     */
+    boolean checkConfiguration(Resources resources) {
+        int densityDpi = resources.getDisplayMetrics().densityDpi;
+        int uiMode = resources.getConfiguration().uiMode;
+        if (densityDpi == mDensityDpi && uiMode == mUiMode) {
+            return false;
+        }
+        mDensityDpi = densityDpi;
+        mUiMode = uiMode;
+        clear();
+        return true;
+    }
+
+    /**
+     * Find free place for the icon using shelves: icons are placed in rows, new row starts under the highest icon.
+     */
+    private Entry allocate(int size) {
+        int cell = size + ICON_PADDING;
+        if (mPageIndex >= 0 && mShelfX + cell > PAGE_SIZE) {
+            mShelfX = 0;
+            mShelfY += mShelfHeight;
+            mShelfHeight = 0;
+        }
+        if (mPageIndex < 0 || mShelfY + cell > PAGE_SIZE) {
+            if (mPageIndex + 1 >= MAX_PAGES) {
+                clear();
+            }
+            mPageIndex++;
+            mShelfX = 0;
+            mShelfY = 0;
+            mShelfHeight = 0;
+            mPages.add(Bitmap.createBitmap(PAGE_SIZE, PAGE_SIZE, Bitmap.Config.ARGB_8888));
+        }
+        Entry entry = new Entry();
+        entry.mPage = mPages.get(mPageIndex);
+        entry.mBounds.set(mShelfX, mShelfY, mShelfX + size, mShelfY + size);
+        mShelfX += cell;
+        mShelfHeight = Math.max(mShelfHeight, cell);
+        return entry;
+    }
+}
@@ -0,0 +1,106 @@
+package com.cleveroad.cyclemenuwidget;
+
+import android.graphics.Canvas;
+import android.support.v7.widget.RecyclerView;
+import android.text.StaticLayout;
+import android.text.TextUtils;
+import android.view.View;
+
+import com.cleveroad.cyclemenuwidget.CycleMenuWidget.CORNER;
+
+/**
+ * Draws labels of the items next to them, on the side of the corner. Layouts of the labels are taken from the
+ * {@link LabelLayoutCache}, labels which aren't measured yet are requested and drawn when they are ready.
+ * Labels are requested when the items are bound, so they are usually measured before the items are shown.
+ */
+class ItemLabelDecoration extends RecyclerView.ItemDecoration implements LabelLayoutCache.OnLayoutReadyListener {
+
+    private RecyclerView mRecyclerView;
+    private ItemsRollAnimator mRollAnimator;
+    private LabelLayoutCache mLayoutCache = LabelLayoutCache.get();
+    private CORNER mCorner = CORNER.RIGHT_TOP;
+    private int mMaxWidth;
+    private float mTextSize;
+    private int mTextColor;
+    /**
+     * Space between the item and its label.
+     */
+    private int mLabelMargin;
+
+    ItemLabelDecoration(RecyclerView recyclerView, ItemsRollAnimator rollAnimator) {
+        mRecyclerView = recyclerView;
+        mRollAnimator = rollAnimator;
+        mMaxWidth = recyclerView.getResources().getDimensionPixelSize(R.dimen.cm_item_label_max_width);
+        mTextSize = recyclerView.getResources().getDimension(R.dimen.cm_item_label_text_size);
+        mLabelMargin = recyclerView.getResources().getDimensionPixelSize(R.dimen.cm_item_label_margin);
+    }
+
+    void setCorner(CORNER corner) {
+        mCorner = corner;
+    }
+
+    void setTextColor(int textColor) {
+        mTextColor = textColor;
+        mRecyclerView.invalidate();
+    }
+
+    /**
+     * Measure the label on the background if it isn't measured yet.
+     *
+     * @param label label of the bound item
+     */
+    void prepareLabel(CharSequence label) {
+        if (!TextUtils.isEmpty(label)) {
+            mLayoutCache.requestLayout(label, mMaxWidth, mTextSize, this);
+        }
+    }
+
+    @Override
+    public void onLayoutReady() {
+        mRecyclerView.invalidate();
+    }
+
+    @Override
+    public void onDrawOver(Canvas canvas, RecyclerView parent, RecyclerView.State state) {
+        //items are moved by the animator while they roll, labels are shown when the items are in their places
+        if (!mRollAnimator.isRolledIn()) {
+            return;
+        }
+        RecyclerMenuAdapter adapter = (RecyclerMenuAdapter) parent.getAdapter();
+        float cornerX = mCorner.isLeftSide() ? 0 : parent.getWidth();
+        float cornerY = mCorner.isUpSide() ? 0 : parent.getHeight();
+        for (int i = parent.getChildCount() - 1; i >= 0; i--) {
+            View child = parent.getChildAt(i);
+            int position = parent.getChildAdapterPosition(child);
+            if (position == RecyclerView.NO_POSITION) {
+                continue;
+            }
+            CharSequence label = adapter.getItem(adapter.getRangeStart() + position).getLabel();
+            if (TextUtils.isEmpty(label)) {
+                continue;
+            }
+            StaticLayout layout = mLayoutCache.getLayout(label, mMaxWidth, mTextSize);
+            if (layout == null) {
+                prepareLabel(label);
+                continue;
+            }
+            float childX = (child.getLeft() + child.getRight()) / 2f;
+            float childY = (child.getTop() + child.getBottom()) / 2f;
+            double radius = Math.hypot(childX - cornerX, childY - cornerY);
+            if (radius == 0) {
+                continue;
+            }
+            //label is placed on the line from the item to the corner
+            double offset = child.getHeight() / 2f + mLabelMargin + layout.getHeight() / 2f;
+            float labelX = (float) (childX - (childX - cornerX) * offset / radius);
+            float labelY = (float) (childY - (childY - cornerY) * offset / radius);
+            layout.getPaint().setColor(mTextColor);
+            canvas.save();
+            //labels stay upright when the items layer is rotated
+            canvas.rotate(-parent.getRotation(), labelX, labelY);
+            canvas.translate(labelX - layout.getWidth() / 2f, labelY - layout.getHeight() / 2f);
+            layout.draw(canvas);
+            canvas.restore();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.cleveroad.cyclemenuwidget;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
+import android.support.annotation.Nullable;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
+import android.view.animation.LinearInterpolator;
+import android.view.animation.OvershootInterpolator;
+
+import com.cleveroad.cyclemenuwidget.CycleMenuWidget.CORNER;
+
+/**
+ * Staggered roll in/out animation of the menu items around the corner. Is created once and reused.
+ * Items itself are rotated by the target (layout manager or canvas view) using out fraction of each item.
+ */
+class ItemsRollAnimator extends AnimatorListenerAdapter implements ValueAnimator.AnimatorUpdateListener {
+
+    /**
+     * Duration of the roll in/out animation of the one item.
+     */
+    private static final int ROLL_ITEM_DURATION = 300;
+    /**
+     * Angle in degrees on which items are rotated out of the circle.
+     */
+    private static final float ROLL_OUT_DEGREE = 100;
+    private static final float ROLL_OVERSHOOT_TENSION = 1.5f;
+
+    /**
+     * Container of the items which are rolled.
+     */
+    interface Target {
+
+        /**
+         * @return count of the items to roll
+         */
+        int getRollItemsCount();
+
+        /**
+         * Called on each frame of the animation. Target should rotate items using {@link #getItemOutFraction(int, int)}.
+         */
+        void onRollProgressChanged();
+    }
+
+    interface OnCompleteCallback {
+
+        void onComplete();
+
+    }
+
+    private ValueAnimator mAnimator;
+    @Nullable
+    private Target mTarget;
+    private Interpolator mItemInterpolator = new OvershootInterpolator(ROLL_OVERSHOOT_TENSION);
+    /**
+     * Current rolling progress. 0 - all items are out of the circle, 1 - all items are in their places.
+     */
+    private float mProgress = 1f;
+    private float mFromProgress;
+    private float mToProgress;
+    private OnCompleteCallback mCallback;
+    private boolean mCanceled = false;
+    /**
+     * Count of the items which start rolling one after another. Rest of the items roll together with the last of them.
+     */
+    private int mMaxStaggeredItems = Integer.MAX_VALUE;
+    private boolean mAnimationEnabled = true;
+    @Nullable
+    private QualityPolicy mQualityPolicy;
+
+    ItemsRollAnimator() {
+        mAnimator = ValueAnimator.ofFloat(0f, 1f);
+        mAnimator.setInterpolator(new LinearInterpolator());
+        mAnimator.addUpdateListener(this);
+        mAnimator.addListener(this);
+    }
+
+    void setTarget(@Nullable Target target) {
+        mTarget = target;
+    }
+
+    /**
+     * Set quality of the roll in/out animation.
+     *
+     * @param overshoot         true if items should overshoot their places
+     * @param maxStaggeredItems count of the items which start rolling one after another
+     * @param animated          false to put items to their places immediately
+     */
+    void setQuality(boolean overshoot, int maxStaggeredItems, boolean animated) {
+        mItemInterpolator = overshoot ? new OvershootInterpolator(ROLL_OVERSHOOT_TENSION) : new DecelerateInterpolator();
+        mMaxStaggeredItems = Math.max(1, maxStaggeredItems);
+        mAnimationEnabled = animated;
+    }
+
+    /**
+     * @param qualityPolicy policy which measures frames of the roll animation
+     */
+    void setQualityPolicy(@Nullable QualityPolicy qualityPolicy) {
+        mQualityPolicy = qualityPolicy;
+    }
+
+    /**
+     * Roll items in (to their places on the circle). Running roll out is reversed from its current frame.
+     *
+     * @param callback callback to be called when all items are in their places
+     */
+    void rollIn(OnCompleteCallback callback) {
+        start(1f, callback);
+    }
+
+    /**
+     * Roll items out of the circle. Running roll in is reversed from its current frame.
+     *
+     * @param callback callback to be called when all items are rolled out
+     */
+    void rollOut(OnCompleteCallback callback) {
+        start(0f, callback);
+    }
+
+    /**
+     * Put items to their places without animation.
+     */
+    void reset() {
+        mAnimator.cancel();
+        setProgress(1f);
+    }
+
+    /**
+     * @return true if items are in their places and are not rolling
+     */
+    boolean isRolledIn() {
+        return mProgress >= 1f;
+    }
+
+    /**
+     * @param corner corner of the menu
+     * @return angle in degrees on which items are rotated out of the circle
+     */
+    static float getOutDegree(CORNER corner) {
+        if (corner == CORNER.LEFT_TOP || corner == CORNER.RIGHT_BOTTOM) {
+            return -ROLL_OUT_DEGREE;
+        }
+        return ROLL_OUT_DEGREE;
+    }
+
+    /**
+     * @param index position of the item among rolled items
+     * @param count count of the rolled items
+     * @return 0 - item is in its place, 1 - item is out of the circle
+     */
+    float getItemOutFraction(int index, int count) {
+        if (mProgress >= 1f || count <= 0) {
+            return 0;
+        }
+        float elapsed = mProgress * getDuration(count);
+        float itemProgress = (elapsed - getItemDelay(count) * Math.min(index, mMaxStaggeredItems - 1)) / ROLL_ITEM_DURATION;
+        if (itemProgress < 0) {
+            itemProgress = 0;
+        } else if (itemProgress > 1) {
+            itemProgress = 1;
+        }
+        return 1f - mItemInterpolator.getInterpolation(itemProgress);
+    }
+
+    /**
+     * Start rolling to the progress. If items are rolling right now, rolling is reversed from the current frame
+     * and takes only the part of the duration which is needed to reach the progress.
+     */
+    private void start(float toProgress, OnCompleteCallback callback) {
+        boolean wasRolling = mAnimator.isRunning();
+        mAnimator.cancel();
+        int count = mTarget != null ? mTarget.getRollItemsCount() : 0;
+        if (!mAnimationEnabled || count == 0) {
+            setProgress(toProgress);
+            callback.onComplete();
+            return;
+        }
+        if (!wasRolling && toProgress > 0 && mProgress >= 1f) {
+            //roll in starts from the items out of the circle.
+            setProgress(0f);
+        }
+        mCallback = callback;
+        mFromProgress = mProgress;
+        mToProgress = toProgress;
+        mAnimator.setDuration((long) (getDuration(count) * Math.abs(toProgress - mProgress)));
+        mAnimator.start();
+    }
+
+    /**
+     * @param count count of the items to roll
+     * @return duration of the rolling of all items
+     */
+    private int getDuration(int count) {
+        int staggeredCount = Math.min(count, mMaxStaggeredItems);
+        return ROLL_ITEM_DURATION + getItemDelay(count) * (staggeredCount - 1);
+    }
+
+    /**
+     * @param count count of the items to roll
+     * @return delay between the starts of the neighbour items
+     */
+    private int getItemDelay(int count) {
+        return ROLL_ITEM_DURATION / Math.min(count, mMaxStaggeredItems) / 2;
+    }
+
+    private void setProgress(float progress) {
+        mProgress = progress;
+        if (mTarget != null) {
+            mTarget.onRollProgressChanged();
+        }
+    }
+
+    @Override
+    public void onAnimationUpdate(ValueAnimator animation) {
+        if (mQualityPolicy != null) {
+            mQualityPolicy.onAnimationFrame();
+        }
+        setProgress(mFromProgress + (mToProgress - mFromProgress) * animation.getAnimatedFraction());
+    }
+
+    @Override
+    public void onAnimationStart(Animator animation) {
+        mCanceled = false;
+    }
+
+    @Override
+    public void onAnimationCancel(Animator animation) {
+        mCanceled = true;
+    }
+
+    @Override
+    public void onAnimationEnd(Animator animation) {
+        OnCompleteCallback callback = mCallback;
+        mCallback = null;
+        if (!mCanceled && callback != null) {
+            callback.onComplete();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.cleveroad.cyclemenuwidget;
+
+import android.graphics.Paint;
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.Nullable;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.LruCache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Shared cache of the measured text layouts of the item labels. Layouts are built on the background executor,
+ * so the menu only translates already measured text while it scrolls. Layout is cached for the label, its max width
+ * and text size. Is shared by all widgets and is accessed only from the main thread.
+ */
+class LabelLayoutCache {
+
+    /**
+     * Max count of the layouts in memory.
+     */
+    private static final int MAX_LAYOUTS = 256;
+
+    private static LabelLayoutCache sInstance;
+
+    interface OnLayoutReadyListener {
+
+        /**
+         * Is called on the main thread when the requested layout is built.
+         */
+        void onLayoutReady();
+    }
+
+    private static class Key {
+        private String mLabel;
+        private int mWidth;
+        private float mTextSize;
+
+        Key set(String label, int width, float textSize) {
+            mLabel = label;
+            mWidth = width;
+            mTextSize = textSize;
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return mWidth == key.mWidth && mTextSize == key.mTextSize && mLabel.equals(key.mLabel);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = mLabel.hashCode();
+            result = 31 * result + mWidth;
+            result = 31 * result + Float.floatToIntBits(mTextSize);
+            return result;
+        }
+    }
+
+    private final LruCache<Key, StaticLayout> mLayouts = new LruCache<>(MAX_LAYOUTS);
+    /**
+     * Layouts which are built right now and listeners which wait for them.
+     */
+    private final HashMap<Key, List<OnLayoutReadyListener>> mPending = new HashMap<>();
+    private final Key mLookupKey = new Key();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final Executor mExecutor = AsyncTask.THREAD_POOL_EXECUTOR;
+
+    static LabelLayoutCache get() {
+        if (sInstance == null) {
+            sInstance = new LabelLayoutCache();
+        }
+        return sInstance;
+    }
+
+    private LabelLayoutCache() {
+    }
+
+    /**
+     * @param label    text of the label
+     * @param width    max width of the label, longer labels are ellipsized
+     * @param textSize size of the text in pixels
+     * @return the layout or null if it isn't built yet
+     */
+    @Nullable
+    StaticLayout getLayout(CharSequence label, int width, float textSize) {
+        return mLayouts.get(mLookupKey.set(label.toString(), width, textSize));
+    }
+
+    /**
+     * Build the layout on the background executor if it isn't cached and isn't built right now.
+     *
+     * @param listener is notified when the layout is built, isn't notified if the layout is cached
+     */
+    void requestLayout(CharSequence label, int width, float textSize, OnLayoutReadyListener listener) {
+        final Key key = new Key().set(label.toString(), width, textSize);
+        if (mLayouts.get(key) != null) {
+            return;
+        }
+        List<OnLayoutReadyListener> listeners = mPending.get(key);
+        if (listeners != null) {
+            if (!listeners.contains(listener)) {
+                listeners.add(listener);
+            }
+            return;
+        }
+        listeners = new ArrayList<>();
+        listeners.add(listener);
+        mPending.put(key, listeners);
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final StaticLayout layout = buildLayout(key);
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onLayoutBuilt(key, layout);
+                    }
+                });
+            }
+        });
+    }
+
+    private void onLayoutBuilt(Key key, StaticLayout layout) {
+        mLayouts.put(key, layout);
+        List<OnLayoutReadyListener> listeners = mPending.remove(key);
+        if (listeners != null) {
+            for (OnLayoutReadyListener listener : listeners) {
+                listener.onLayoutReady();
+            }
+        }
+    }
+
+    /**
+     * Is called on the background thread. Each layout gets its own paint, so its color can be set while it's drawn.
+     */
+    private static StaticLayout buildLayout(Key key) {
+        TextPaint paint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        paint.setTextSize(key.mTextSize);
+        CharSequence text = TextUtils.ellipsize(key.mLabel, paint, key.mWidth, TextUtils.TruncateAt.END);
+        int width = (int) Math.ceil(Layout.getDesiredWidth(text, paint));
+        return new StaticLayout(text, paint, Math.max(width, 1), Layout.Alignment.ALIGN_CENTER, 1f, 0f, false);
+    }
+}
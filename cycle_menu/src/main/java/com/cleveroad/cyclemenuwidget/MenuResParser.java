@@ -0,0 +1,180 @@
+package com.cleveroad.cyclemenuwidget;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.XmlResourceParser;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.MenuRes;
+import android.support.v4.content.ContextCompat;
+import android.view.View;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reads items of the menu resource without the MenuBuilder, so the menu can be read on the background thread.
+ * Items of the menu and of its groups are ordered by their category and order in category as MenuBuilder orders them,
+ * items of the sub menus are skipped like they are skipped by {@link android.view.Menu#getItem(int)}.
+ */
+class MenuResParser {
+
+    private static final String ANDROID_NAMESPACE = "http://schemas.android.com/apk/res/android";
+    private static final String TAG_MENU = "menu";
+    private static final String TAG_GROUP = "group";
+    private static final String TAG_ITEM = "item";
+
+    /**
+     * Same masks and category orders as in MenuBuilder.
+     */
+    private static final int CATEGORY_MASK = 0xffff0000;
+    private static final int USER_MASK = 0x0000ffff;
+    private static final int CATEGORY_SHIFT = 16;
+    private static final int[] CATEGORY_TO_ORDER = new int[]{1, 4, 5, 3, 2, 0};
+
+    private static final Comparator<Item> ORDERING_COMPARATOR = new Comparator<Item>() {
+        @Override
+        public int compare(Item first, Item second) {
+            return first.mOrdering < second.mOrdering ? -1 : (first.mOrdering == second.mOrdering ? 0 : 1);
+        }
+    };
+
+    /**
+     * Item of the menu resource.
+     */
+    static class Item {
+        int mId;
+        int mIconRes;
+        /**
+         * Theme attribute of the icon, is resolved on the main thread. 0 if icon isn't set by the attribute.
+         */
+        int mIconAttr;
+        CharSequence mTitle;
+        /**
+         * Icon loaded on the background thread or null if it isn't loaded there.
+         */
+        Drawable mIcon;
+        int mOrdering;
+    }
+
+    private MenuResParser() {
+    }
+
+    /**
+     * Read items of the menu and load their icons through the resources. Icons which can't be loaded
+     * through the resources (e.g. vector icons before API 21) are left for {@link Item#mIconRes},
+     * icons set by the theme attributes are left for {@link Item#mIconAttr}.
+     *
+     * @param context   context which resources contain the menu
+     * @param menuResId menu resource
+     * @return items of the menu in the order of the MenuBuilder
+     * @throws Resources.NotFoundException if the menu resource doesn't exist
+     */
+    static List<Item> parse(Context context, @MenuRes int menuResId) throws XmlPullParserException, IOException {
+        Resources resources = context.getResources();
+        List<Item> items = new ArrayList<>();
+        XmlResourceParser parser = resources.getXml(menuResId);
+        try {
+            int menuDepth = 0;
+            int groupCategory = 0;
+            int groupOrder = 0;
+            int eventType = parser.getEventType();
+            while (eventType != XmlPullParser.END_DOCUMENT) {
+                if (eventType == XmlPullParser.START_TAG) {
+                    String name = parser.getName();
+                    if (TAG_MENU.equals(name)) {
+                        menuDepth++;
+                    } else if (TAG_GROUP.equals(name) && menuDepth == 1) {
+                        //group sets the defaults of its items
+                        groupCategory = readInt(resources, parser, "menuCategory", 0);
+                        groupOrder = readInt(resources, parser, "orderInCategory", 0);
+                    } else if (TAG_ITEM.equals(name) && menuDepth == 1) {
+                        items.add(readItem(context, resources, parser, groupCategory, groupOrder));
+                    }
+                } else if (eventType == XmlPullParser.END_TAG) {
+                    String name = parser.getName();
+                    if (TAG_MENU.equals(name)) {
+                        menuDepth--;
+                    } else if (TAG_GROUP.equals(name) && menuDepth == 1) {
+                        groupCategory = 0;
+                        groupOrder = 0;
+                    }
+                }
+                eventType = parser.next();
+            }
+        } finally {
+            parser.close();
+        }
+        //sort is stable, items of the same ordering keep the order of the resource as in MenuBuilder
+        Collections.sort(items, ORDERING_COMPARATOR);
+        return items;
+    }
+
+    private static Item readItem(Context context, Resources resources, XmlResourceParser parser,
+                                 int groupCategory, int groupOrder) {
+        Item item = new Item();
+        item.mId = parser.getAttributeResourceValue(ANDROID_NAMESPACE, "id", View.NO_ID);
+        int category = readInt(resources, parser, "menuCategory", groupCategory);
+        int order = readInt(resources, parser, "orderInCategory", groupOrder);
+        item.mOrdering = getOrdering((category & CATEGORY_MASK) | (order & USER_MASK));
+        int titleRes = parser.getAttributeResourceValue(ANDROID_NAMESPACE, "title", 0);
+        item.mTitle = titleRes != 0 ? resources.getText(titleRes) : parser.getAttributeValue(ANDROID_NAMESPACE, "title");
+
+        item.mIconRes = parser.getAttributeResourceValue(ANDROID_NAMESPACE, "icon", 0);
+        if (item.mIconRes == 0) {
+            item.mIconAttr = readAttributeReference(parser, "icon");
+        }
+        if (item.mIconRes != 0) {
+            try {
+                item.mIcon = ContextCompat.getDrawable(context, item.mIconRes);
+            } catch (Resources.NotFoundException e) {
+                //icon is loaded on the main thread with the support of the vector drawables
+                item.mIcon = null;
+            }
+        }
+        return item;
+    }
+
+    /**
+     * Read the integer attribute which can be set by the value or by the integer resource.
+     */
+    private static int readInt(Resources resources, XmlResourceParser parser, String name, int defaultValue) {
+        int resId = parser.getAttributeResourceValue(ANDROID_NAMESPACE, name, 0);
+        if (resId != 0) {
+            return resources.getInteger(resId);
+        }
+        return parser.getAttributeIntValue(ANDROID_NAMESPACE, name, defaultValue);
+    }
+
+    /**
+     * @return theme attribute which the attribute refers to (e.g. ?attr/icon) or 0
+     */
+    private static int readAttributeReference(XmlResourceParser parser, String name) {
+        //reference to the theme attribute is read from the compiled resource as "?" and id of the attribute
+        String value = parser.getAttributeValue(ANDROID_NAMESPACE, name);
+        if (value == null || value.length() < 2 || value.charAt(0) != '?') {
+            return 0;
+        }
+        try {
+            return Integer.decode(value.substring(1));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Same ordering as MenuBuilder gives to the item.
+     */
+    private static int getOrdering(int categoryOrder) {
+        int index = (categoryOrder & CATEGORY_MASK) >> CATEGORY_SHIFT;
+        if (index < 0 || index >= CATEGORY_TO_ORDER.length) {
+            throw new IllegalArgumentException("Order does not contain a valid category.");
+        }
+        return (CATEGORY_TO_ORDER[index] << CATEGORY_SHIFT) | (categoryOrder & USER_MASK);
+    }
+}
@@ -0,0 +1,143 @@
+package com.cleveroad.cyclemenuwidget;
+
+import android.content.Context;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.RecyclerView;
+
+import com.cleveroad.cyclemenuwidget.CycleMenuWidget.CORNER;
+
+/**
+ * Inner ring of the multi-ring menu. Ring shows a range of the menu items in its own recycler view with its own
+ * layout manager, so it scrolls and recycles its items independently of the other rings.
+ */
+class MenuRing {
+
+    private TouchedRecyclerView mRecyclerView;
+    private CycleLayoutManager mLayoutManager;
+    private RecyclerMenuAdapter mAdapter;
+    private ItemsRollAnimator mRollAnimator;
+    private CORNER mCorner;
+    /**
+     * Decoration which draws labels of the items, null if labels are disabled.
+     */
+    @Nullable
+    private ItemLabelDecoration mItemLabelDecoration;
+    /**
+     * Size of the square recycler view of the ring, items are placed on the arc near its sides.
+     */
+    private int mSize;
+
+    /**
+     * @param itemsSource adapter of the outer ring, ring shows its items and sends clicks to it
+     */
+    MenuRing(Context context, CORNER corner, ItemsRollAnimator rollAnimator, RecyclerMenuAdapter itemsSource) {
+        mRollAnimator = rollAnimator;
+        mCorner = corner;
+        mRecyclerView = new TouchedRecyclerView(context);
+        mRecyclerView.setCorner(corner);
+        mRecyclerView.setOverScrollMode(RecyclerView.OVER_SCROLL_NEVER);
+        mLayoutManager = new CycleLayoutManager(context, corner, rollAnimator);
+        mAdapter = new RecyclerMenuAdapter(itemsSource);
+        mAdapter.setOnMenuItemClickListener(itemsSource);
+        mRecyclerView.setLayoutManager(mLayoutManager);
+        mRecyclerView.setAdapter(mAdapter);
+    }
+
+    TouchedRecyclerView getRecyclerView() {
+        return mRecyclerView;
+    }
+
+    CycleLayoutManager getLayoutManager() {
+        return mLayoutManager;
+    }
+
+    RecyclerMenuAdapter getAdapter() {
+        return mAdapter;
+    }
+
+    /**
+     * @return real position of the first item of the ring
+     */
+    int getStart() {
+        return mAdapter.getRangeStart();
+    }
+
+    /**
+     * @return count of the items on the ring
+     */
+    int getItemCount() {
+        return mAdapter.getItemCount();
+    }
+
+    /**
+     * Set items of the ring. Items are rebound only if the range is changed.
+     *
+     * @param start real position of the first item
+     * @param count count of the items
+     */
+    void setRange(int start, int count) {
+        if (mAdapter.setRange(start, count)) {
+            mAdapter.notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * Set size of the ring. Touches are taken only near the arc of the ring, the rest of them go to the outer rings.
+     *
+     * @param size     size of the square recycler view of the ring
+     * @param ringStep distance between the arcs of the neighbour rings
+     */
+    void setSize(int size, int ringStep) {
+        mSize = size;
+        mRecyclerView.setTouchRadiusRange(size - ringStep, size);
+    }
+
+    int getSize() {
+        return mSize;
+    }
+
+    void setCorner(CORNER corner) {
+        mCorner = corner;
+        mLayoutManager.setCorner(corner);
+        mRecyclerView.setCorner(corner);
+        if (mItemLabelDecoration != null) {
+            mItemLabelDecoration.setCorner(corner);
+        }
+    }
+
+    /**
+     * @param enabled    true to show labels of the items
+     * @param labelColor color of the labels
+     */
+    void setItemLabelsEnabled(boolean enabled, int labelColor) {
+        if (enabled && mItemLabelDecoration == null) {
+            mItemLabelDecoration = new ItemLabelDecoration(mRecyclerView, mRollAnimator);
+            mItemLabelDecoration.setCorner(mCorner);
+            mRecyclerView.addItemDecoration(mItemLabelDecoration);
+        } else if (!enabled && mItemLabelDecoration != null) {
+            mRecyclerView.removeItemDecoration(mItemLabelDecoration);
+            mItemLabelDecoration = null;
+        }
+        if (mItemLabelDecoration != null) {
+            mItemLabelDecoration.setTextColor(labelColor);
+        }
+        mAdapter.setItemLabelDecoration(mItemLabelDecoration);
+    }
+
+    void setScrollEnabled(boolean enabled) {
+        mRecyclerView.setTouchEnabled(enabled);
+        mLayoutManager.setScrollEnabled(enabled);
+    }
+
+    /**
+     * Stop following items of the outer ring, is called when the ring is removed.
+     */
+    void release() {
+        mAdapter.detachFromItemsSource();
+    }
+
+    void setLayerRotationEnabled(boolean layerRotationEnabled) {
+        mRecyclerView.setClipChildren(!layerRotationEnabled);
+        mLayoutManager.setLayerRotationEnabled(layerRotationEnabled);
+    }
+}
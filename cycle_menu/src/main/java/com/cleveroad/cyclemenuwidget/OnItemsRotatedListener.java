@@ -0,0 +1,11 @@
+package com.cleveroad.cyclemenuwidget;
+
+/**
+ * Inner callback of the items container (layout manager or canvas view) which is called when items were rotated
+ * or laid out again. Can be called a few times per frame.
+ */
+interface OnItemsRotatedListener {
+
+    void onItemsRotated();
+
+}
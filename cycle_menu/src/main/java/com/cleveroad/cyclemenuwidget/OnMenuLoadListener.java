@@ -0,0 +1,22 @@
+package com.cleveroad.cyclemenuwidget;
+
+/**
+ * Listener of the menu loads started by {@link CycleMenuWidget#setMenuResAsync(int)}. Is called on the main thread,
+ * is not called for the cancelled loads.
+ */
+public interface OnMenuLoadListener {
+
+    /**
+     * @param menuResId menu resource which items were added to the menu
+     */
+    void onMenuLoaded(int menuResId);
+
+    /**
+     * Menu is left without the items of the resource.
+     *
+     * @param menuResId menu resource which couldn't be read
+     * @param e         reason of the failure
+     */
+    void onMenuLoadFailed(int menuResId, Exception e);
+
+}
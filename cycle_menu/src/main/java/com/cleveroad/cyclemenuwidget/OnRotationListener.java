@@ -0,0 +1,22 @@
+package com.cleveroad.cyclemenuwidget;
+
+/**
+ * Listener of the items rotation. Is called at most once per frame while items are scrolled.
+ * Positions are real positions of the items, as in {@link OnMenuItemClickListener}.
+ */
+public interface OnRotationListener {
+
+    /**
+     * @param firstItemPosition position of the first item
+     * @param angleOffset       offset of the first item in degrees
+     */
+    void onRotationChanged(int firstItemPosition, double angleOffset);
+
+    /**
+     * Called when another item comes to the slot which is set by {@link CycleMenuWidget#setRotationSlotAngle(double)}.
+     *
+     * @param itemPosition position of the item in the slot or -1 if there is no item in the slot
+     */
+    void onSlotItemChanged(int itemPosition);
+
+}
@@ -0,0 +1,143 @@
+package com.cleveroad.cyclemenuwidget;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import android.util.SparseBooleanArray;
+import android.view.View;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Items of the {@link CycleMenuItemsSource}. Page is loaded on the background executor when its item is requested,
+ * the next page is requested when the menu comes close to it. Only the last used pages are kept in memory,
+ * items of the pages which aren't loaded are placeholders. Is accessed only from the main thread.
+ */
+class PagedMenuItems {
+
+    private static final String TAG = PagedMenuItems.class.getSimpleName();
+
+    /**
+     * Count of the items in the one page.
+     */
+    private static final int PAGE_SIZE = 20;
+    /**
+     * Max count of the pages in memory.
+     */
+    private static final int MAX_CACHED_PAGES = 5;
+
+    interface OnPageLoadedListener {
+
+        /**
+         * @param start real position of the first loaded item
+         * @param count count of the loaded items
+         */
+        void onPageLoaded(int start, int count);
+    }
+
+    private final CycleMenuItemsSource mSource;
+    private final OnPageLoadedListener mListener;
+    private final LruCache<Integer, List<CycleMenuItem>> mPages = new LruCache<>(MAX_CACHED_PAGES);
+    /**
+     * Pages which are loaded right now.
+     */
+    private final SparseBooleanArray mLoadingPages = new SparseBooleanArray();
+    private final CycleMenuItem mPlaceholder = new CycleMenuItem(View.NO_ID, null);
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final Executor mExecutor = AsyncTask.THREAD_POOL_EXECUTOR;
+    /**
+     * Is set when items are released, pages which are loaded after that are dropped.
+     */
+    private boolean mReleased;
+
+    PagedMenuItems(CycleMenuItemsSource source, OnPageLoadedListener listener) {
+        mSource = source;
+        mListener = listener;
+    }
+
+    int getCount() {
+        return mSource.getItemsCount();
+    }
+
+    /**
+     * @param position real position of the item
+     * @return the item or the placeholder if its page isn't loaded yet
+     */
+    CycleMenuItem getItem(int position) {
+        int page = position / PAGE_SIZE;
+        int pageOffset = position % PAGE_SIZE;
+        //page which the menu comes to next is loaded ahead
+        requestPage(pageOffset < PAGE_SIZE / 2 ? page - 1 : page + 1);
+        List<CycleMenuItem> items = mPages.get(page);
+        if (items == null) {
+            requestPage(page);
+            return mPlaceholder;
+        }
+        return pageOffset < items.size() ? items.get(pageOffset) : mPlaceholder;
+    }
+
+    /**
+     * Find the item by the source, items which aren't loaded are found too.
+     *
+     * @param itemId id of the item
+     * @return real position of the item or -1 if there is no item with the id
+     */
+    int getPositionForId(int itemId) {
+        int position = mSource.getPositionForId(itemId);
+        return position >= 0 && position < getCount() ? position : -1;
+    }
+
+    /**
+     * Drop loaded pages, pages which are loaded right now are dropped when they come.
+     */
+    void release() {
+        mReleased = true;
+        mLoadingPages.clear();
+        mPages.evictAll();
+    }
+
+    private void requestPage(final int page) {
+        final int start = page * PAGE_SIZE;
+        final int count = Math.min(PAGE_SIZE, getCount() - start);
+        if (page < 0 || count <= 0 || mReleased || mLoadingPages.get(page) || mPages.get(page) != null) {
+            return;
+        }
+        mLoadingPages.put(page, true);
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                List<CycleMenuItem> items;
+                try {
+                    items = mSource.loadItems(start, count);
+                } catch (RuntimeException e) {
+                    //items of the page stay placeholders, page is requested again when its items are shown
+                    Log.e(TAG, "Failed to load items " + start + ".." + (start + count), e);
+                    items = null;
+                }
+                final List<CycleMenuItem> loadedItems = items;
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (loadedItems != null) {
+                            onPageLoaded(page, loadedItems);
+                        } else {
+                            mLoadingPages.delete(page);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void onPageLoaded(int page, List<CycleMenuItem> items) {
+        if (mReleased || !mLoadingPages.get(page)) {
+            return;
+        }
+        mLoadingPages.delete(page);
+        mPages.put(page, items);
+        mListener.onPageLoaded(page * PAGE_SIZE, items.size());
+    }
+}
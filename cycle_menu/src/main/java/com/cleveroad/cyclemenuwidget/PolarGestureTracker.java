@@ -0,0 +1,270 @@
+package com.cleveroad.cyclemenuwidget;
+
+import android.content.Context;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.ViewConfiguration;
+
+import com.cleveroad.cyclemenuwidget.CycleMenuWidget.CORNER;
+
+/**
+ * Converts touch motion into rotation around the corner of the menu. Angles are measured in the local
+ * coordinates of the corner (x to the inside from the vertical side, y to the inside from the horizontal side),
+ * the same coordinates are used to place the items. Slop and fling thresholds are read once.
+ */
+class PolarGestureTracker {
+
+    private final int mTouchSlopSquare;
+    private final int mMinFlingVelocity;
+    private final int mMaxFlingVelocity;
+
+    private CORNER mCorner = CORNER.RIGHT_TOP;
+    private int mWidth;
+    private int mHeight;
+    private VelocityTracker mVelocityTracker;
+    private float mDownX;
+    private float mDownY;
+    private float mLastX;
+    private float mLastY;
+    private double mLastAngle;
+    /**
+     * Part of the last move (in the view coordinates) which is directed from/to the corner, so is not rotation.
+     */
+    private double mRadialDeltaX;
+    private double mRadialDeltaY;
+    /**
+     * Part of the velocity (in the view coordinates) which is directed from/to the corner, so is not rotation.
+     */
+    private double mRadialVelocityX;
+    private double mRadialVelocityY;
+    /**
+     * Angle in degrees on which the view that receives the events is rotated around the corner.
+     */
+    private double mFrameAngle;
+
+    PolarGestureTracker(Context context) {
+        ViewConfiguration configuration = ViewConfiguration.get(context);
+        int touchSlop = configuration.getScaledTouchSlop();
+        mTouchSlopSquare = touchSlop * touchSlop;
+        mMinFlingVelocity = configuration.getScaledMinimumFlingVelocity();
+        mMaxFlingVelocity = configuration.getScaledMaximumFlingVelocity();
+    }
+
+    void setCorner(CORNER corner) {
+        mCorner = corner;
+    }
+
+    /**
+     * Set rotation of the view which receives the events. Events come in the rotated coordinates, so the rotation
+     * is added to the angle of the touch, otherwise rotation of the view would be subtracted from the drag.
+     *
+     * @param frameAngle angle in degrees in the same direction as the angles of the touch
+     */
+    void setFrameAngle(double frameAngle) {
+        mFrameAngle = frameAngle;
+    }
+
+    /**
+     * @param event  down event
+     * @param width  width of the view which receives the events
+     * @param height height of the view which receives the events
+     */
+    void onDown(MotionEvent event, int width, int height) {
+        mWidth = width;
+        mHeight = height;
+        mDownX = event.getX();
+        mDownY = event.getY();
+        mLastX = mDownX;
+        mLastY = mDownY;
+        mLastAngle = getAngle(mDownX, mDownY);
+        if (mVelocityTracker == null) {
+            mVelocityTracker = VelocityTracker.obtain();
+        } else {
+            mVelocityTracker.clear();
+        }
+        mVelocityTracker.addMovement(event);
+    }
+
+    /**
+     * @return true if touch has moved from the down point farther than touch slop
+     */
+    boolean isOverSlop(MotionEvent event) {
+        float dx = event.getX() - mDownX;
+        float dy = event.getY() - mDownY;
+        return dx * dx + dy * dy > mTouchSlopSquare;
+    }
+
+    /**
+     * @return true if motion from the down point goes along the arc more than from/to the corner
+     */
+    boolean isAngularDrag(MotionEvent event) {
+        double localX = toLocalX(mDownX);
+        double localY = toLocalY(mDownY);
+        double radius = Math.hypot(localX, localY);
+        if (radius <= 0) {
+            return true;
+        }
+        double dx = toLocalX(event.getX()) - localX;
+        double dy = toLocalY(event.getY()) - localY;
+        double radial = (dx * localX + dy * localY) / radius;
+        double tangential = (localX * dy - localY * dx) / radius;
+        return Math.abs(tangential) >= Math.abs(radial);
+    }
+
+    /**
+     * Shift the last point when the view was moved under the finger, so moving of the view isn't counted as a drag.
+     *
+     * @param offsetX offset of the view in x
+     * @param offsetY offset of the view in y
+     */
+    void offsetLastPoint(int offsetX, int offsetY) {
+        mLastX -= offsetX;
+        mLastY -= offsetY;
+        mLastAngle = getAngle(mLastX, mLastY);
+    }
+
+    /**
+     * @return x part of the last move which is directed from/to the corner
+     */
+    double getRadialDeltaX() {
+        return mRadialDeltaX;
+    }
+
+    /**
+     * @return y part of the last move which is directed from/to the corner
+     */
+    double getRadialDeltaY() {
+        return mRadialDeltaY;
+    }
+
+    /**
+     * @return x part of the velocity in px/s which is directed from/to the corner,
+     * is computed by {@link #computeAngularVelocity(MotionEvent)}
+     */
+    double getRadialVelocityX() {
+        return mRadialVelocityX;
+    }
+
+    /**
+     * @return y part of the velocity in px/s which is directed from/to the corner,
+     * is computed by {@link #computeAngularVelocity(MotionEvent)}
+     */
+    double getRadialVelocityY() {
+        return mRadialVelocityY;
+    }
+
+    /**
+     * Start measuring rotation from the current point, so drag doesn't jump by the slop.
+     */
+    void startDrag(MotionEvent event) {
+        mLastX = event.getX();
+        mLastY = event.getY();
+        mLastAngle = getAngle(mLastX, mLastY);
+    }
+
+    /**
+     * @param event move event
+     * @return angle in degrees on which touch was rotated around the corner since the previous event
+     */
+    double onMove(MotionEvent event) {
+        if (mVelocityTracker != null) {
+            mVelocityTracker.addMovement(event);
+        }
+        float x = event.getX();
+        float y = event.getY();
+        computeRadialDelta(x - mLastX, y - mLastY, x, y);
+        mLastX = x;
+        mLastY = y;
+        double angle = getAngle(mLastX, mLastY);
+        double delta = angle - mLastAngle;
+        mLastAngle = angle;
+        if (delta > 180) {
+            delta -= 360;
+        } else if (delta < -180) {
+            delta += 360;
+        }
+        return delta;
+    }
+
+    /**
+     * Is called on up event to get velocity of the fling.
+     *
+     * @param event up event
+     * @return angular velocity in degrees per second or 0 if touch is slower than the fling
+     */
+    double computeAngularVelocity(MotionEvent event) {
+        if (mVelocityTracker == null) {
+            return 0;
+        }
+        mVelocityTracker.addMovement(event);
+        mVelocityTracker.computeCurrentVelocity(1000, mMaxFlingVelocity);
+        float viewVelocityX = mVelocityTracker.getXVelocity();
+        float viewVelocityY = mVelocityTracker.getYVelocity();
+        double localX = toLocalX(event.getX());
+        double localY = toLocalY(event.getY());
+        double velocityX = mCorner.isLeftSide() ? viewVelocityX : -viewVelocityX;
+        double velocityY = mCorner.isUpSide() ? viewVelocityY : -viewVelocityY;
+        double touchRadius = Math.hypot(localX, localY);
+        if (touchRadius <= 0) {
+            mRadialVelocityX = viewVelocityX;
+            mRadialVelocityY = viewVelocityY;
+            return 0;
+        }
+        //velocity is split as the move in computeRadialDelta
+        double directionX = (mCorner.isLeftSide() ? localX : -localX) / touchRadius;
+        double directionY = (mCorner.isUpSide() ? localY : -localY) / touchRadius;
+        double radialVelocity = viewVelocityX * directionX + viewVelocityY * directionY;
+        mRadialVelocityX = radialVelocity * directionX;
+        mRadialVelocityY = radialVelocity * directionY;
+        //tangential velocity in px/s, positive when angle grows
+        double tangentialVelocity = (localX * velocityY - localY * velocityX) / touchRadius;
+        if (Math.abs(tangentialVelocity) < mMinFlingVelocity) {
+            return 0;
+        }
+        return Math.toDegrees(tangentialVelocity / touchRadius);
+    }
+
+    void reset() {
+        mRadialVelocityX = 0;
+        mRadialVelocityY = 0;
+        if (mVelocityTracker != null) {
+            mVelocityTracker.recycle();
+            mVelocityTracker = null;
+        }
+    }
+
+    /**
+     * @return angle in degrees of the point around the corner
+     */
+    double getAngle(float x, float y) {
+        return Math.toDegrees(Math.atan2(toLocalY(y), toLocalX(x))) + mFrameAngle;
+    }
+
+    /**
+     * Project the move onto the direction from the corner to the touch point.
+     */
+    private void computeRadialDelta(float dx, float dy, float x, float y) {
+        double localX = toLocalX(x);
+        double localY = toLocalY(y);
+        double radius = Math.hypot(localX, localY);
+        if (radius <= 0) {
+            mRadialDeltaX = dx;
+            mRadialDeltaY = dy;
+            return;
+        }
+        //direction from the corner in the view coordinates
+        double directionX = (mCorner.isLeftSide() ? localX : -localX) / radius;
+        double directionY = (mCorner.isUpSide() ? localY : -localY) / radius;
+        double radial = dx * directionX + dy * directionY;
+        mRadialDeltaX = radial * directionX;
+        mRadialDeltaY = radial * directionY;
+    }
+
+    private double toLocalX(float x) {
+        return mCorner.isLeftSide() ? x : mWidth - x;
+    }
+
+    private double toLocalY(float y) {
+        return mCorner.isUpSide() ? y : mHeight - y;
+    }
+}
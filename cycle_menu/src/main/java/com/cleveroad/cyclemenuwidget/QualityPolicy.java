@@ -0,0 +1,134 @@
+package com.cleveroad.cyclemenuwidget;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.os.Build;
+import android.os.SystemClock;
+
+import com.cleveroad.cyclemenuwidget.CycleMenuWidget.QUALITY;
+
+/**
+ * Resolves quality of the menu animations. In AUTO mode quality is picked by the device class
+ * and is decreased when open/close animations of the widget drop frames. Frames of the circular reveal
+ * run on the RenderThread aren't sampled, so such animations don't decrease quality.
+ */
+class QualityPolicy {
+
+    /**
+     * Frame is counted as dropped if it took more than two frames of 60 fps.
+     */
+    private static final long JANK_FRAME_MILLIS = 32;
+    /**
+     * Animation with less frames is not used to measure jank.
+     */
+    private static final int MIN_FRAMES_TO_MEASURE = 6;
+    /**
+     * Quality is decreased if more than 1/JANK_DENOMINATOR of frames were dropped.
+     */
+    private static final int JANK_DENOMINATOR = 4;
+
+    /**
+     * Memory classes (in megabytes) which are counted as entry level devices.
+     */
+    private static final int LOW_MEMORY_CLASS = 48;
+    private static final int MEDIUM_MEMORY_CLASS = 96;
+
+    /**
+     * Quality of the device class, is detected once. Is accessed only from the main thread.
+     */
+    private static QUALITY sDeviceQuality;
+
+    private QUALITY mQuality = QUALITY.AUTO;
+    /**
+     * Quality which is used in AUTO mode. Starts from the device quality and is decreased only for this widget,
+     * so one janky menu doesn't downgrade the others.
+     */
+    private QUALITY mAutoQuality;
+
+    private long mLastFrameTime;
+    private int mFrames;
+    private int mJankFrames;
+
+    QualityPolicy(Context context) {
+        if (sDeviceQuality == null) {
+            sDeviceQuality = detectDeviceQuality(context);
+        }
+        mAutoQuality = sDeviceQuality;
+    }
+
+    /**
+     * Set quality. Quality of AUTO mode is reset to the device quality.
+     */
+    void setQuality(QUALITY quality) {
+        mQuality = quality;
+        mAutoQuality = sDeviceQuality;
+    }
+
+    QUALITY getQuality() {
+        return mQuality;
+    }
+
+    /**
+     * @return quality which is used right now: HIGH, MEDIUM or LOW
+     */
+    QUALITY getActiveQuality() {
+        return mQuality == QUALITY.AUTO ? mAutoQuality : mQuality;
+    }
+
+    /**
+     * Reset frame statistic. Should be called when open/close animation is started.
+     */
+    void onAnimationStart() {
+        mLastFrameTime = 0;
+        mFrames = 0;
+        mJankFrames = 0;
+    }
+
+    /**
+     * Should be called on each frame of the open/close animation.
+     */
+    void onAnimationFrame() {
+        long frameTime = SystemClock.uptimeMillis();
+        if (mLastFrameTime > 0) {
+            mFrames++;
+            if (frameTime - mLastFrameTime > JANK_FRAME_MILLIS) {
+                mJankFrames++;
+            }
+        }
+        mLastFrameTime = frameTime;
+    }
+
+    /**
+     * Should be called when open/close animation is finished. In AUTO mode quality is decreased
+     * by one tier if animation dropped too many frames.
+     *
+     * @return true if active quality was changed
+     */
+    boolean onAnimationEnd() {
+        boolean janky = mFrames >= MIN_FRAMES_TO_MEASURE && mJankFrames * JANK_DENOMINATOR > mFrames;
+        mLastFrameTime = 0;
+        mFrames = 0;
+        mJankFrames = 0;
+        if (!janky || mQuality != QUALITY.AUTO || mAutoQuality == QUALITY.LOW) {
+            return false;
+        }
+        mAutoQuality = mAutoQuality == QUALITY.HIGH ? QUALITY.MEDIUM : QUALITY.LOW;
+        return true;
+    }
+
+    private static QUALITY detectDeviceQuality(Context context) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        int memoryClass = activityManager != null ? activityManager.getMemoryClass() : Integer.MAX_VALUE;
+        boolean lowRamDevice = activityManager != null
+                && Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT
+                && activityManager.isLowRamDevice();
+        if (lowRamDevice || processors <= 1 || memoryClass <= LOW_MEMORY_CLASS) {
+            return QUALITY.LOW;
+        }
+        if (processors <= 2 || memoryClass <= MEDIUM_MEMORY_CLASS) {
+            return QUALITY.MEDIUM;
+        }
+        return QUALITY.HIGH;
+    }
+}
@@ -1,9 +1,12 @@
 package com.cleveroad.cyclemenuwidget;
 
 import android.content.res.ColorStateList;
+import android.graphics.Color;
 import android.graphics.PorterDuff;
+import android.support.annotation.Nullable;
 import android.support.design.widget.FloatingActionButton;
 import android.support.v7.widget.RecyclerView;
+import android.util.SparseIntArray;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -15,19 +18,109 @@ import java.util.List;
 /**
  * Inner adapter for menu mItems.
  */
-class RecyclerMenuAdapter extends RecyclerView.Adapter<RecyclerMenuAdapter.ItemHolder> implements OnMenuItemClickListener {
+class RecyclerMenuAdapter extends RecyclerView.Adapter<RecyclerMenuAdapter.ItemHolder>
+        implements OnMenuItemClickListener, PagedMenuItems.OnPageLoadedListener {
 
     private List<CycleMenuItem> mItems;
+    /**
+     * True if the items list is the immutable snapshot of the model, it's copied before the first change.
+     */
+    private boolean mItemsShared = false;
     private ColorStateList mItemsBackgroundTint;
     private boolean defaultTintColorChanged = false;
     private OnMenuItemClickListener mOnMenuItemClickListener;
+    /**
+     * Color to tint the icons of the items, TRANSPARENT to keep colors of the icons
+     */
+    private int mItemsIconTint = Color.TRANSPARENT;
 
     private CycleMenuWidget.SCROLL mScrollType = CycleMenuWidget.SCROLL.BASIC;
 
+    /**
+     * Index of the item ids to their real positions. Is rebuilt on the first request after the items were changed.
+     */
+    private SparseIntArray mIdPositions = new SparseIntArray();
+    private boolean mIdPositionsDirty = true;
+
+    /**
+     * Range of the items which are shown by the adapter, is set to the rings of the multi-ring menu.
+     * Count -1 means all items.
+     */
+    private int mRangeStart = 0;
+    private int mRangeCount = -1;
+
+    /**
+     * Items which are loaded by pages, null if items are kept in the list.
+     */
+    @Nullable
+    private PagedMenuItems mPagedItems;
+    /**
+     * Adapter which holds the items shown by this adapter, null if this adapter holds its items.
+     */
+    @Nullable
+    private RecyclerMenuAdapter mItemsSource;
+    /**
+     * Adapters which show ranges of the items of this adapter. They are notified when pages are loaded.
+     */
+    private List<RecyclerMenuAdapter> mRangeAdapters = new ArrayList<>();
+    /**
+     * Decoration which draws labels of the items, null if labels are disabled.
+     */
+    @Nullable
+    private ItemLabelDecoration mItemLabelDecoration;
+
     RecyclerMenuAdapter() {
         mItems = new ArrayList<>();
     }
 
+    /**
+     * Create adapter which shows items of the source adapter. Source adapter notifies this adapter when pages of its
+     * items are loaded, other changes of the items should be notified by the owner.
+     *
+     * @param itemsSource adapter which holds the items
+     */
+    RecyclerMenuAdapter(RecyclerMenuAdapter itemsSource) {
+        mItems = new ArrayList<>();
+        mItemsSource = itemsSource;
+        mItemsBackgroundTint = itemsSource.mItemsBackgroundTint;
+        defaultTintColorChanged = itemsSource.defaultTintColorChanged;
+        mItemsIconTint = itemsSource.mItemsIconTint;
+        itemsSource.mRangeAdapters.add(this);
+    }
+
+    /**
+     * Stop showing items of the source adapter.
+     */
+    void detachFromItemsSource() {
+        if (mItemsSource != null) {
+            mItemsSource.mRangeAdapters.remove(this);
+            mItemsSource = null;
+        }
+    }
+
+    /**
+     * Show only the range of the items. Click listener still gets the real positions of the items.
+     *
+     * @param start real position of the first item
+     * @param count count of the items, -1 to show all items
+     * @return true if the range was changed
+     */
+    boolean setRange(int start, int count) {
+        if (mRangeStart == start && mRangeCount == count) {
+            return false;
+        }
+        mRangeStart = start;
+        mRangeCount = count;
+        return true;
+    }
+
+    /**
+     * @return real position of the first shown item
+     */
+    int getRangeStart() {
+        return mRangeStart;
+    }
+
     /**
      * Set scroll type for menu
      *
@@ -37,14 +130,29 @@ class RecyclerMenuAdapter extends RecyclerView.Adapter<RecyclerMenuAdapter.ItemH
         mScrollType = scrollType;
     }
 
+    CycleMenuWidget.SCROLL getScrollType() {
+        return mScrollType;
+    }
+
+    /**
+     * @param itemLabelDecoration decoration which draws labels of the items, labels of the bound items are measured
+     *                            by it ahead, null if labels are disabled
+     */
+    void setItemLabelDecoration(@Nullable ItemLabelDecoration itemLabelDecoration) {
+        mItemLabelDecoration = itemLabelDecoration;
+    }
+
     /**
      * Set items Collection for the adapter
      *
      * @param items collections to be set to adapter
      */
     void setItems(Collection<CycleMenuItem> items) {
+        releasePagedItems();
+        ensureMutableItems();
         mItems.clear();
         mItems.addAll(items);
+        mIdPositionsDirty = true;
     }
 
     /**
@@ -67,13 +175,29 @@ class RecyclerMenuAdapter extends RecyclerView.Adapter<RecyclerMenuAdapter.ItemH
         mItemsBackgroundTint = itemsBackgroundTint;
     }
 
+    /**
+     * Set color to tint the icons of the items.
+     *
+     * @param itemsIconTint color of the icons, {@link Color#TRANSPARENT} to keep colors of the icons
+     */
+    void setItemsIconTint(int itemsIconTint) {
+        mItemsIconTint = itemsIconTint;
+    }
+
+    int getItemsIconTint() {
+        return mItemsIconTint;
+    }
+
     /**
      * Add items Collection to the adapter
      *
      * @param items collections that need to be added to adapter
      */
     void addItems(Collection<CycleMenuItem> items) {
+        releasePagedItems();
+        ensureMutableItems();
         mItems.addAll(items);
+        mIdPositionsDirty = true;
     }
 
     /**
@@ -82,77 +206,256 @@ class RecyclerMenuAdapter extends RecyclerView.Adapter<RecyclerMenuAdapter.ItemH
      * @param item that need to add to the adapter
      */
     void addItem(CycleMenuItem item) {
+        releasePagedItems();
+        ensureMutableItems();
         mItems.add(item);
+        mIdPositionsDirty = true;
+    }
+
+    /**
+     * Show items of the source instead of the items list. Items are loaded by pages when they are bound.
+     *
+     * @param itemsSource source of the items
+     */
+    void setItemsSource(CycleMenuItemsSource itemsSource) {
+        releasePagedItems();
+        ensureMutableItems();
+        mItems.clear();
+        mIdPositionsDirty = true;
+        mPagedItems = new PagedMenuItems(itemsSource, this);
+    }
+
+    /**
+     * Show the snapshot of the items. Snapshot isn't copied, it's copied only if the items are changed by the adapter.
+     *
+     * @param items immutable items
+     */
+    void setItemsSnapshot(List<CycleMenuItem> items) {
+        releasePagedItems();
+        mItems = items;
+        mItemsShared = true;
+        mIdPositionsDirty = true;
+    }
+
+    private void ensureMutableItems() {
+        if (mItemsShared) {
+            mItems = new ArrayList<>(mItems);
+            mItemsShared = false;
+        }
+    }
+
+    /**
+     * Drop the items source and its loaded pages, items are kept in the list again.
+     */
+    private void releasePagedItems() {
+        if (mPagedItems != null) {
+            mPagedItems.release();
+            mPagedItems = null;
+        }
+    }
+
+    @Override
+    public void onPageLoaded(int start, int count) {
+        notifyRealRangeChanged(start, count);
+        for (RecyclerMenuAdapter adapter : mRangeAdapters) {
+            adapter.notifyRealRangeChanged(start, count);
+        }
+    }
+
+    /**
+     * Rebind shown items of the range.
+     *
+     * @param start real position of the first changed item
+     * @param count count of the changed items
+     */
+    private void notifyRealRangeChanged(int start, int count) {
+        int from = Math.max(start - mRangeStart, 0);
+        int to = Math.min(start + count - mRangeStart, getItemCount());
+        if (from < to) {
+            notifyItemRangeChanged(from, to - from);
+        }
     }
 
     @Override
     public ItemHolder onCreateViewHolder(ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.cm_item_fab, parent, false);
+        int layoutId = viewType == CycleMenuWidget.ITEM_SIZE.NORMAL.getValue() ? R.layout.cm_item_fab_normal : R.layout.cm_item_fab;
+        View view = LayoutInflater.from(parent.getContext()).inflate(layoutId, parent, false);
         if (defaultTintColorChanged) {
             //noinspection RedundantCast
             ((FloatingActionButton) view).setBackgroundTintList(mItemsBackgroundTint);
         }
-        return new ItemHolder(view, this);
+        //icons are drawn from the shared atlas instead of rendering of the (vector) drawable by each button
+        int iconSize = parent.getResources().getDimensionPixelSize(R.dimen.cm_item_icon_size);
+        AtlasIconDrawable iconDrawable = new AtlasIconDrawable(IconAtlas.get(), parent.getResources(), iconSize);
+        ((FloatingActionButton) view).setImageDrawable(iconDrawable);
+        return new ItemHolder(view, this, iconDrawable);
     }
 
     @Override
     public void onBindViewHolder(ItemHolder holder, final int position) {
-        FloatingActionButton button = (FloatingActionButton) holder.itemView;
-        button.setImageDrawable(mItems.get(getRealPosition(position)).getIcon());
-        holder.itemView.setId(mItems.get(getRealPosition(position)).getId());
+        CycleMenuItem item = getItem(mRangeStart + position);
+        holder.mIconDrawable.setIcon(item.getIcon(), mItemsIconTint);
+        holder.itemView.setId(item.getId());
+        if (mItemLabelDecoration != null) {
+            //items are bound before they are shown, so label is usually measured when the item comes to the menu
+            mItemLabelDecoration.prepareLabel(item.getLabel());
+        }
+    }
+
+    /**
+     * View type of the item is the value of its {@link CycleMenuWidget.ITEM_SIZE}.
+     */
+    @Override
+    public int getItemViewType(int position) {
+        return getItemSize(mRangeStart + position).getValue();
+    }
+
+    /**
+     * Items of the source are MINI, so the size is known without loading of the item.
+     *
+     * @param realPosition real position of the item
+     * @return size of the item
+     */
+    CycleMenuWidget.ITEM_SIZE getItemSize(int realPosition) {
+        if (mItemsSource != null) {
+            return mItemsSource.getItemSize(realPosition);
+        }
+        if (mPagedItems != null) {
+            return CycleMenuWidget.ITEM_SIZE.MINI;
+        }
+        return mItems.get(realPosition).getSize();
+    }
+
+    /**
+     * @return true if all items have the same size, items of the source are all MINI
+     */
+    boolean hasUniformItemSizes() {
+        if (mItemsSource != null) {
+            return mItemsSource.hasUniformItemSizes();
+        }
+        if (mPagedItems != null) {
+            return true;
+        }
+        for (int i = 1; i < mItems.size(); i++) {
+            if (mItems.get(i).getSize() != mItems.get(0).getSize()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param size size of the items
+     * @return count of the items with the size
+     */
+    int getItemsCount(CycleMenuWidget.ITEM_SIZE size) {
+        if (mItemsSource != null) {
+            return mItemsSource.getItemsCount(size);
+        }
+        if (mPagedItems != null) {
+            return size == CycleMenuWidget.ITEM_SIZE.MINI ? mPagedItems.getCount() : 0;
+        }
+        int count = 0;
+        for (CycleMenuItem item : mItems) {
+            if (item.getSize() == size) {
+                count++;
+            }
+        }
+        return count;
     }
 
     @Override
     public int getItemCount() {
-        //if scrollType is ENDLESS then need to set infinite scrolling
-        if (mScrollType == CycleMenuWidget.SCROLL.ENDLESS) {
-            return Integer.MAX_VALUE;
+        //ENDLESS scrolling is done by wrapping of the items in the CycleLayoutManager
+        int count = getRealItemsCount();
+        if (mRangeCount < 0) {
+            return count;
         }
-        return mItems.size();
+        //items could be removed after the range was set
+        return Math.max(0, Math.min(mRangeCount, count - mRangeStart));
     }
 
     int getRealItemsCount() {
-        return mItems.size();
+        if (mItemsSource != null) {
+            return mItemsSource.getRealItemsCount();
+        }
+        return mPagedItems != null ? mPagedItems.getCount() : mItems.size();
     }
 
     /**
-     * Return real position of item in adapter. Is used when scrollType = ENDLESS.
+     * @param realPosition real position of the item
+     * @return menu item on the position, placeholder if the page of the item isn't loaded yet
+     */
+    CycleMenuItem getItem(int realPosition) {
+        if (mItemsSource != null) {
+            return mItemsSource.getItem(realPosition);
+        }
+        if (mPagedItems != null) {
+            return mPagedItems.getItem(realPosition);
+        }
+        return mItems.get(realPosition);
+    }
+
+    /**
+     * Find item by its id. If there are a few items with the same id the first of them is returned.
+     * Items of the source are found by the source.
      *
-     * @param position position form adapter.
-     * @return int realPosition of the item in adapter
+     * @param itemId id of the item
+     * @return real position of the item or {@link RecyclerView#NO_POSITION} if there is no item with the id
      */
-    private int getRealPosition(int position) {
-        return position % mItems.size();
+    int getPositionForId(int itemId) {
+        if (mPagedItems != null) {
+            int position = mPagedItems.getPositionForId(itemId);
+            return position >= 0 ? position : RecyclerView.NO_POSITION;
+        }
+        if (mIdPositionsDirty) {
+            mIdPositions.clear();
+            for (int i = 0; i < mItems.size(); i++) {
+                int id = mItems.get(i).getId();
+                //the first item with the id is kept, ascending ids are appended to the end of the array
+                if (mIdPositions.indexOfKey(id) < 0) {
+                    mIdPositions.append(id, i);
+                }
+            }
+            mIdPositionsDirty = false;
+        }
+        return mIdPositions.get(itemId, RecyclerView.NO_POSITION);
     }
 
     @Override
     public void onMenuItemClick(View view, int itemPosition) {
         if (mOnMenuItemClickListener != null) {
-            mOnMenuItemClickListener.onMenuItemClick(view, getRealPosition(itemPosition));
+            mOnMenuItemClickListener.onMenuItemClick(view, toRealPosition(itemPosition));
         }
     }
 
     @Override
     public void onMenuItemLongClick(View view, int itemPosition) {
         if (mOnMenuItemClickListener != null) {
-            mOnMenuItemClickListener.onMenuItemLongClick(view, getRealPosition(itemPosition));
+            mOnMenuItemClickListener.onMenuItemLongClick(view, toRealPosition(itemPosition));
         }
     }
 
+    private int toRealPosition(int position) {
+        return position == RecyclerView.NO_POSITION ? position : mRangeStart + position;
+    }
+
     static class ItemHolder extends RecyclerView.ViewHolder implements View.OnClickListener, View.OnLongClickListener {
 
         private OnMenuItemClickListener mOnMenuItemClickListener;
+        private AtlasIconDrawable mIconDrawable;
 
-        ItemHolder(View itemView, OnMenuItemClickListener listener) {
+        ItemHolder(View itemView, OnMenuItemClickListener listener, AtlasIconDrawable iconDrawable) {
             super(itemView);
             mOnMenuItemClickListener = listener;
+            mIconDrawable = iconDrawable;
             itemView.setOnClickListener(this);
             itemView.setOnLongClickListener(this);
         }
 
         @Override
         public void onClick(View view) {
-            //Resend click to the outer menu item click listener with provided item position. if scrollType is ENDLESS need to getRealPosition from the position.
+            //Resend click to the outer menu item click listener with provided item position.
             mOnMenuItemClickListener.onMenuItemClick(view, getAdapterPosition());
         }
 
@@ -0,0 +1,119 @@
+package com.cleveroad.cyclemenuwidget;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.TimeInterpolator;
+import android.animation.ValueAnimator;
+
+/**
+ * Animator of the float value that is created once and reused for each start.
+ * Value is passed to the typed setter, so there is no reflection and no boxing on each frame.
+ */
+class ReusableAnimator extends AnimatorListenerAdapter implements ValueAnimator.AnimatorUpdateListener {
+
+    /**
+     * Typed setter of the animated value.
+     */
+    interface ValueSetter {
+        void setValue(float value);
+    }
+
+    /**
+     * Callback which is called when animation is finished (and was not canceled).
+     */
+    interface OnEndListener {
+        void onEnd();
+    }
+
+    private ValueAnimator mAnimator;
+    private ValueSetter mValueSetter;
+    private OnEndListener mOnEndListener;
+    private float mFromValue;
+    private float mToValue;
+    private float mValue;
+    private boolean mCanceled = false;
+
+    ReusableAnimator(ValueSetter valueSetter, long duration) {
+        mValueSetter = valueSetter;
+        mAnimator = ValueAnimator.ofFloat(0f, 1f);
+        mAnimator.setDuration(duration);
+        mAnimator.addUpdateListener(this);
+        mAnimator.addListener(this);
+    }
+
+    void setInterpolator(TimeInterpolator interpolator) {
+        mAnimator.setInterpolator(interpolator);
+    }
+
+    void setOnEndListener(OnEndListener onEndListener) {
+        mOnEndListener = onEndListener;
+    }
+
+    /**
+     * Start animation of the value. Running animation will be canceled.
+     *
+     * @param fromValue start value
+     * @param toValue   end value
+     */
+    void start(float fromValue, float toValue) {
+        mAnimator.cancel();
+        mFromValue = fromValue;
+        mToValue = toValue;
+        mAnimator.start();
+    }
+
+    /**
+     * Start animation of the value with the specified duration. Running animation will be canceled.
+     *
+     * @param fromValue start value
+     * @param toValue   end value
+     * @param duration  duration of the animation
+     */
+    void start(float fromValue, float toValue, long duration) {
+        mAnimator.cancel();
+        mAnimator.setDuration(duration);
+        start(fromValue, toValue);
+    }
+
+    void cancel() {
+        mAnimator.cancel();
+    }
+
+    boolean isRunning() {
+        return mAnimator.isRunning();
+    }
+
+    /**
+     * @return last value that was passed to the setter
+     */
+    float getValue() {
+        return mValue;
+    }
+
+    float getToValue() {
+        return mToValue;
+    }
+
+    @Override
+    public void onAnimationUpdate(ValueAnimator animation) {
+        mValue = mFromValue + (mToValue - mFromValue) * animation.getAnimatedFraction();
+        mValueSetter.setValue(mValue);
+    }
+
+    @Override
+    public void onAnimationStart(Animator animation) {
+        mCanceled = false;
+    }
+
+    @Override
+    public void onAnimationCancel(Animator animation) {
+        mCanceled = true;
+    }
+
+    @Override
+    public void onAnimationEnd(Animator animation) {
+        if (!mCanceled && mOnEndListener != null) {
+            mOnEndListener.onEnd();
+        }
+    }
+}
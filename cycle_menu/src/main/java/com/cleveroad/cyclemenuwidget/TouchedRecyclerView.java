@@ -3,32 +3,69 @@ package com.cleveroad.cyclemenuwidget;
 import android.content.Context;
 import android.support.annotation.Nullable;
 import android.support.v4.view.MotionEventCompat;
+import android.support.v4.view.ViewCompat;
 import android.support.v7.widget.RecyclerView;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
-import android.view.ViewConfiguration;
+import android.view.ViewParent;
+import android.widget.OverScroller;
+
+import com.cleveroad.cyclemenuwidget.CycleMenuWidget.CORNER;
 
 /**
  * TouchedRecyclerView are used as RecycleView that allow to control touch interception.
+ * Drag is converted into rotation around the corner of the menu, so items follow the finger on the arc.
+ * Menu takes only drags along the arc, the rest of the drag and the fling are dispatched to the nested scrolling parent.
  */
 class TouchedRecyclerView extends RecyclerView {
 
     private boolean mTouchEnabled = true;
     private boolean mHasItemsToScroll = true;
-    private float lastX;
-    private float lastY;
     private boolean mIsScrolling;
+    /**
+     * True if the drag goes from/to the corner. Such drag is left to the parent.
+     */
+    private boolean mDragRejected;
+    private int[] mScrollOffset = new int[2];
+    private PolarGestureTracker mGestureTracker;
+    /**
+     * Part of the scroll distance less than one pixel which wasn't scrolled yet.
+     */
+    private double mScrollRemainder;
+    private double mNestedRemainderX;
+    private double mNestedRemainderY;
+    private CORNER mCorner = CORNER.RIGHT_TOP;
+    /**
+     * Distances from the corner between which touches are taken. Touches outside of them go to the views under
+     * this one, so the inner ring of the multi-ring menu doesn't take touches of the outer rings.
+     */
+    private int mMinTouchRadius = 0;
+    private int mMaxTouchRadius = Integer.MAX_VALUE;
+    /**
+     * Scroller of the angular fling. RecyclerView's fling isn't used: it dispatches the fling to the nested scrolling
+     * parent once more.
+     */
+    private OverScroller mFlingScroller;
+    private int mLastFlingY;
 
     public TouchedRecyclerView(Context context) {
         super(context);
+        init(context);
     }
 
     public TouchedRecyclerView(Context context, @Nullable AttributeSet attrs) {
         super(context, attrs);
+        init(context);
     }
 
     public TouchedRecyclerView(Context context, @Nullable AttributeSet attrs, int defStyle) {
         super(context, attrs, defStyle);
+        init(context);
+    }
+
+    private void init(Context context) {
+        mGestureTracker = new PolarGestureTracker(context);
+        mFlingScroller = new OverScroller(context);
     }
 
     public void setTouchEnabled(boolean touchEnabled) {
@@ -39,68 +76,248 @@ class TouchedRecyclerView extends RecyclerView {
         mHasItemsToScroll = hasItemsToScroll;
     }
 
-    @Override
-    public boolean onInterceptTouchEvent(MotionEvent ev) {
+    void setCorner(CORNER corner) {
+        mCorner = corner;
+        mGestureTracker.setCorner(corner);
+    }
 
-        if (mTouchEnabled) {
-            return super.onInterceptTouchEvent(ev);
+    /**
+     * @param minRadius min distance from the corner where touch is taken
+     * @param maxRadius max distance from the corner where touch is taken
+     */
+    void setTouchRadiusRange(int minRadius, int maxRadius) {
+        mMinTouchRadius = minRadius;
+        mMaxTouchRadius = maxRadius;
+    }
+
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent ev) {
+        if (MotionEventCompat.getActionMasked(ev) == MotionEvent.ACTION_DOWN && !isInTouchRadius(ev.getX(), ev.getY())) {
+            //gesture is left to the views under this one
+            return false;
         }
+        return super.dispatchTouchEvent(ev);
+    }
 
-        if (!mHasItemsToScroll) {
-            return mTouchEnabled;
+    /**
+     * Distance from the corner doesn't depend on the rotation of the items layer around the corner.
+     */
+    private boolean isInTouchRadius(float x, float y) {
+        if (mMinTouchRadius <= 0 && mMaxTouchRadius == Integer.MAX_VALUE) {
+            return true;
         }
-        //if we haven't enough elements to scroll need to intercept touch but do not intercepot scroll.
+        double radius = Math.hypot(mCorner.isLeftSide() ? x : getWidth() - x, mCorner.isUpSide() ? y : getHeight() - y);
+        return radius >= mMinTouchRadius && radius <= mMaxTouchRadius;
+    }
 
-        ViewConfiguration vc = ViewConfiguration.get(getContext());
-        int slop = vc.getScaledTouchSlop();
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent ev) {
+        if (!mTouchEnabled && !mHasItemsToScroll) {
+            return false;
+        }
+        updateFrameAngle();
         int action = MotionEventCompat.getActionMasked(ev);
-
-        // Always handle the case of the touch gesture being complete.
-        if (action == MotionEvent.ACTION_CANCEL || action == MotionEvent.ACTION_UP) {
-            // Release the scroll.
-            mIsScrolling = false;
-            return false; // Do not intercept touch event, let the child handle it
+        switch (action) {
+            case MotionEvent.ACTION_DOWN:
+                mGestureTracker.onDown(ev, getWidth(), getHeight());
+                mIsScrolling = false;
+                mDragRejected = false;
+                if (mTouchEnabled && (getScrollState() == SCROLL_STATE_SETTLING || !mFlingScroller.isFinished())) {
+                    //catch the flinging items
+                    stopScroll();
+                    startScrolling(ev);
+                }
+                return mIsScrolling;
+            case MotionEvent.ACTION_MOVE:
+                if (!mIsScrolling && mHasItemsToScroll) {
+                    //if touch is disabled drag is intercepted but items are not scrolled
+                    checkDragStarted(ev);
+                }
+                return mIsScrolling;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                stopScrolling();
+                return false;
+            default:
+                return mIsScrolling;
         }
+    }
 
+    @Override
+    public boolean onTouchEvent(MotionEvent e) {
+        int action = MotionEventCompat.getActionMasked(e);
+        if (!mTouchEnabled) {
+            if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+                stopScrolling();
+            }
+            return false;
+        }
+        if (!mHasItemsToScroll) {
+            return true;
+        }
+        updateFrameAngle();
         switch (action) {
-            case MotionEvent.ACTION_MOVE: {
-                if (mIsScrolling) {
-                    // We're currently scrolling, so yes, intercept the
-                    // touch event!
-                    return true;
+            case MotionEvent.ACTION_DOWN:
+                mGestureTracker.onDown(e, getWidth(), getHeight());
+                mDragRejected = false;
+                break;
+            case MotionEvent.ACTION_MOVE:
+                double deltaAngle = mGestureTracker.onMove(e);
+                if (!mIsScrolling) {
+                    checkDragStarted(e);
+                } else {
+                    scrollByAngle(deltaAngle);
+                    dispatchRadialScroll();
                 }
-
-                // If the user has dragged her finger horizontally more than
-                // the touch slop, start the scroll
-
-                // left as an exercise for the reader
-                double diff = Math.sqrt((ev.getX() - lastX) * (ev.getX() - lastX) + (ev.getY() - lastY) * (ev.getY() - lastY));
-                lastX = ev.getX();
-                lastY = ev.getY();
-                // Touch slop should be calculated using ViewConfiguration
-                // constants.
-                if (diff > slop) {
-                    // Start scrolling!
-                    mIsScrolling = true;
-                    return true;
+                break;
+            case MotionEvent.ACTION_UP:
+                if (mIsScrolling) {
+                    onDragReleased(e);
                 }
+                stopScrolling();
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                stopScrolling();
+                break;
+            default:
                 break;
-            }
         }
+        return true;
+    }
 
-        // In general, we don't want to intercept touch events. They should be
-        // handled by the child view.
-        return false;
+    /**
+     * Events come in the coordinates of the rotated items layer, tracker adds its rotation.
+     */
+    private void updateFrameAngle() {
+        CycleLayoutManager layoutManager = (CycleLayoutManager) getLayoutManager();
+        if (layoutManager != null) {
+            mGestureTracker.setFrameAngle(layoutManager.getLayerRotation());
+        }
+    }
 
+    /**
+     * Start scrolling if touch has moved farther than slop along the arc. Drag from/to the corner is not taken,
+     * so the parent list can intercept it.
+     */
+    private void checkDragStarted(MotionEvent e) {
+        if (mDragRejected || !mGestureTracker.isOverSlop(e)) {
+            return;
+        }
+        if (mGestureTracker.isAngularDrag(e)) {
+            startScrolling(e);
+        } else {
+            mDragRejected = true;
+        }
     }
 
-    @Override
-    public boolean onTouchEvent(MotionEvent e) {
+    private void startScrolling(MotionEvent e) {
+        mIsScrolling = true;
+        mScrollRemainder = 0;
+        mNestedRemainderX = 0;
+        mNestedRemainderY = 0;
+        mGestureTracker.startDrag(e);
+        ViewParent parent = getParent();
+        if (parent != null) {
+            parent.requestDisallowInterceptTouchEvent(true);
+        }
+        if (mTouchEnabled) {
+            startNestedScroll(ViewCompat.SCROLL_AXIS_HORIZONTAL | ViewCompat.SCROLL_AXIS_VERTICAL);
+        }
+    }
+
+    private void stopScrolling() {
+        mIsScrolling = false;
+        mGestureTracker.reset();
+        stopNestedScroll();
+    }
 
-        if (mTouchEnabled && mHasItemsToScroll) {
-            getParent().requestDisallowInterceptTouchEvent(true);
-            return super.onTouchEvent(e) & true;
+    /**
+     * Dispatch part of the last move from/to the corner to the nested scrolling parent.
+     * Pre scroll is not dispatched: the menu takes the rotation first, parent gets only what isn't rotation.
+     */
+    private void dispatchRadialScroll() {
+        //scroll is opposite to the finger move
+        double scrollX = -mGestureTracker.getRadialDeltaX() + mNestedRemainderX;
+        double scrollY = -mGestureTracker.getRadialDeltaY() + mNestedRemainderY;
+        int dx = (int) scrollX;
+        int dy = (int) scrollY;
+        mNestedRemainderX = scrollX - dx;
+        mNestedRemainderY = scrollY - dy;
+        if (dx == 0 && dy == 0) {
+            return;
+        }
+        mScrollOffset[0] = 0;
+        mScrollOffset[1] = 0;
+        if (dispatchNestedScroll(0, 0, dx, dy, mScrollOffset)) {
+            //parent moved the menu under the finger
+            mGestureTracker.offsetLastPoint(mScrollOffset[0], mScrollOffset[1]);
         }
-        return mTouchEnabled;
+    }
+
+    /**
+     * Fling the menu with the angular part of the velocity. Part of the velocity from/to the corner is offered
+     * to the nested scrolling parent as in {@link #dispatchRadialScroll()}, so parent doesn't take the rotation.
+     */
+    private void onDragReleased(MotionEvent e) {
+        double angularVelocity = mGestureTracker.computeAngularVelocity(e);
+        //fling is opposite to the finger move
+        float velocityX = (float) -mGestureTracker.getRadialVelocityX();
+        float velocityY = (float) -mGestureTracker.getRadialVelocityY();
+        if ((velocityX != 0 || velocityY != 0) && !dispatchNestedPreFling(velocityX, velocityY)) {
+            dispatchNestedFling(velocityX, velocityY, false);
+        }
+        flingByAngle(angularVelocity);
+    }
+
+    /**
+     * Rotate items on the angle. Fractional pixels are accumulated, so slow drag is not lost.
+     *
+     * @param deltaAngle angle in degrees
+     */
+    private void scrollByAngle(double deltaAngle) {
+        CycleLayoutManager layoutManager = (CycleLayoutManager) getLayoutManager();
+        if (layoutManager == null || deltaAngle == 0) {
+            return;
+        }
+        double distance = layoutManager.getScrollDistanceForAngle(deltaAngle) + mScrollRemainder;
+        int scroll = (int) distance;
+        mScrollRemainder = distance - scroll;
+        if (scroll != 0) {
+            scrollBy(0, scroll);
+        }
+    }
+
+    /**
+     * @param angularVelocity velocity in degrees per second
+     */
+    private void flingByAngle(double angularVelocity) {
+        CycleLayoutManager layoutManager = (CycleLayoutManager) getLayoutManager();
+        if (layoutManager == null || angularVelocity == 0) {
+            return;
+        }
+        mLastFlingY = 0;
+        int velocity = (int) layoutManager.getScrollDistanceForAngle(angularVelocity);
+        mFlingScroller.fling(0, 0, 0, velocity, 0, 0, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    @Override
+    public void computeScroll() {
+        if (!mFlingScroller.computeScrollOffset()) {
+            return;
+        }
+        int currY = mFlingScroller.getCurrY();
+        int dy = currY - mLastFlingY;
+        mLastFlingY = currY;
+        if (dy != 0) {
+            scrollBy(0, dy);
+        }
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    @Override
+    public void stopScroll() {
+        super.stopScroll();
+        mFlingScroller.abortAnimation();
     }
 }
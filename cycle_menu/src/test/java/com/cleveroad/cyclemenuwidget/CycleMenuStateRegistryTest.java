@@ -0,0 +1,102 @@
+package com.cleveroad.cyclemenuwidget;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CycleMenuStateRegistryTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void missingKey_returnsDefaults() throws Exception {
+        CycleMenuStateRegistry registry = new CycleMenuStateRegistry(4);
+        assertFalse(registry.contains(1));
+        assertEquals(-1, registry.getPosition(1));
+        assertEquals(CycleMenuWidget.UNDEFINED_ANGLE_VALUE, registry.getAngleOffset(1), DELTA);
+        assertTrue(registry.isOpen(1, true));
+        assertFalse(registry.isOpen(1, false));
+    }
+
+    @Test
+    public void put_keepsState() throws Exception {
+        CycleMenuStateRegistry registry = new CycleMenuStateRegistry(4);
+        registry.put(10L, 3, 12.5, true);
+        registry.put(20L, 7, -4.0, false);
+        assertEquals(3, registry.getPosition(10L));
+        assertEquals(12.5, registry.getAngleOffset(10L), DELTA);
+        assertTrue(registry.isOpen(10L, false));
+        assertEquals(7, registry.getPosition(20L));
+        assertFalse(registry.isOpen(20L, true));
+        assertEquals(2, registry.size());
+
+        registry.put(10L, 5, 1.0, false);
+        assertEquals(5, registry.getPosition(10L));
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    public void putOpen_keepsPosition() throws Exception {
+        CycleMenuStateRegistry registry = new CycleMenuStateRegistry(4);
+        registry.put(1L, 6, 2.0, false);
+        registry.putOpen(1L, true);
+        assertEquals(6, registry.getPosition(1L));
+        assertTrue(registry.isOpen(1L, false));
+
+        registry.putOpen(2L, true);
+        assertEquals(-1, registry.getPosition(2L));
+        assertTrue(registry.isOpen(2L, false));
+    }
+
+    @Test
+    public void full_dropsLeastRecentlyUsed() throws Exception {
+        CycleMenuStateRegistry registry = new CycleMenuStateRegistry(3);
+        registry.put(1L, 1, 0, false);
+        registry.put(2L, 2, 0, false);
+        registry.put(3L, 3, 0, false);
+        //key 1 is used again, so key 2 is the least recently used one
+        registry.getPosition(1L);
+        registry.put(4L, 4, 0, false);
+
+        assertEquals(3, registry.size());
+        assertFalse(registry.contains(2L));
+        assertEquals(1, registry.getPosition(1L));
+        assertEquals(3, registry.getPosition(3L));
+        assertEquals(4, registry.getPosition(4L));
+    }
+
+    @Test
+    public void size_isBounded() throws Exception {
+        CycleMenuStateRegistry registry = new CycleMenuStateRegistry(8);
+        for (long key = 0; key < 1000; key++) {
+            registry.put(key, (int) key, 0, false);
+        }
+        assertEquals(8, registry.size());
+        for (long key = 992; key < 1000; key++) {
+            assertEquals(key, registry.getPosition(key));
+        }
+    }
+
+    @Test
+    public void remove_dropsOnlyKey() throws Exception {
+        CycleMenuStateRegistry registry = new CycleMenuStateRegistry(4);
+        registry.put(1L, 1, 0, false);
+        registry.put(2L, 2, 0, true);
+        registry.put(3L, 3, 0, false);
+        registry.remove(1L);
+        assertFalse(registry.contains(1L));
+        assertEquals(2, registry.getPosition(2L));
+        assertTrue(registry.isOpen(2L, false));
+        assertEquals(3, registry.getPosition(3L));
+        assertEquals(2, registry.size());
+
+        registry.clear();
+        assertEquals(0, registry.size());
+        assertFalse(registry.contains(2L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroCapacity_throws() throws Exception {
+        new CycleMenuStateRegistry(0);
+    }
+}
@@ -0,0 +1,102 @@
+package com.cleveroad.cyclemenusample;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.Choreographer;
+
+/**
+ * Collects frame timing from the {@link Choreographer}. Does nothing on devices below Jelly Bean.
+ */
+class FrameStatsMonitor {
+
+    /**
+     * Frames longer than this value (in nanoseconds) are counted as janky. Equals to 1.5 of the 60 fps frame.
+     */
+    private static final long JANK_FRAME_NANOS = 25_000_000L;
+
+    private static final long NANOS_IN_MILLI = 1_000_000L;
+
+    private boolean mRunning = false;
+    private long mLastFrameTimeNanos = 0;
+    private int mFrameCount = 0;
+    private int mJankFrameCount = 0;
+    private long mTotalFrameNanos = 0;
+    private long mMaxFrameNanos = 0;
+
+    private Object mFrameCallback;
+
+    void start() {
+        if (mRunning || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            return;
+        }
+        mRunning = true;
+        mLastFrameTimeNanos = 0;
+        postFrameCallback();
+    }
+
+    void stop() {
+        mRunning = false;
+    }
+
+    /**
+     * Reset collected values. Is used to report values per period.
+     */
+    void reset() {
+        mFrameCount = 0;
+        mJankFrameCount = 0;
+        mTotalFrameNanos = 0;
+        mMaxFrameNanos = 0;
+    }
+
+    int getFrameCount() {
+        return mFrameCount;
+    }
+
+    int getJankFrameCount() {
+        return mJankFrameCount;
+    }
+
+    float getAverageFrameMillis() {
+        if (mFrameCount == 0) {
+            return 0;
+        }
+        return (float) mTotalFrameNanos / mFrameCount / NANOS_IN_MILLI;
+    }
+
+    float getMaxFrameMillis() {
+        return (float) mMaxFrameNanos / NANOS_IN_MILLI;
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private void postFrameCallback() {
+        if (mFrameCallback == null) {
+            mFrameCallback = new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    onFrame(frameTimeNanos);
+                }
+            };
+        }
+        Choreographer.getInstance().postFrameCallback((Choreographer.FrameCallback) mFrameCallback);
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private void onFrame(long frameTimeNanos) {
+        if (!mRunning) {
+            return;
+        }
+        if (mLastFrameTimeNanos > 0) {
+            long frameNanos = frameTimeNanos - mLastFrameTimeNanos;
+            mFrameCount++;
+            mTotalFrameNanos += frameNanos;
+            if (frameNanos > mMaxFrameNanos) {
+                mMaxFrameNanos = frameNanos;
+            }
+            if (frameNanos > JANK_FRAME_NANOS) {
+                mJankFrameCount++;
+            }
+        }
+        mLastFrameTimeNanos = frameTimeNanos;
+        postFrameCallback();
+    }
+}
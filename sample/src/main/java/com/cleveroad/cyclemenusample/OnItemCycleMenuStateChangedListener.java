@@ -1,7 +0,0 @@
-package com.cleveroad.cyclemenusample;
-
-interface OnItemCycleMenuStateChangedListener {
-    void onOpen(int position);
-
-    void onClose(int position);
-}
\ No newline at end of file
@@ -10,28 +10,23 @@ import android.view.ViewGroup;
 import android.widget.RelativeLayout;
 import android.widget.Toast;
 
+import com.cleveroad.cyclemenuwidget.CycleMenuStateRegistry;
 import com.cleveroad.cyclemenuwidget.CycleMenuWidget;
 import com.cleveroad.cyclemenuwidget.OnMenuItemClickListener;
-import com.cleveroad.cyclemenuwidget.OnStateChangedListener;
-import com.cleveroad.cyclemenuwidget.StateSaveListener;
 
-import java.util.Arrays;
-
-public class RecyclerViewAdapter extends RecyclerView.Adapter<RecyclerViewAdapter.ItemHolder> implements OnItemCycleMenuStateChangedListener, StateSaver {
+public class RecyclerViewAdapter extends RecyclerView.Adapter<RecyclerViewAdapter.ItemHolder> {
 
     private static final int COUNT = 20;
+    /**
+     * Open state of the menus before they are changed by the user.
+     */
+    private static final boolean[] DEFAULT_MENU_STATES_OPEN = {true, true, false, true, false, true, false, true, false, true, true, true, false, true, false, true, false, true, false, true,};
 
     private Context mContext;
-    private boolean[] mMenuStatesOpen = {true, true, false, true, false, true, false, true, false, true, true, true, false, true, false, true, false, true, false, true,};
-
-    private int[] mPositions = new int[COUNT];
-    private double[] mAngles = new double[COUNT];
-
+    private CycleMenuStateRegistry mStateRegistry = new CycleMenuStateRegistry();
 
     RecyclerViewAdapter(Context context) {
         mContext = context;
-        Arrays.fill(mAngles, CycleMenuWidget.UNDEFINED_ANGLE_VALUE);
-        Arrays.fill(mPositions, RecyclerView.NO_POSITION);
     }
 
     @Override
@@ -73,18 +68,13 @@ public class RecyclerViewAdapter extends RecyclerView.Adapter<RecyclerViewAdapte
             cycleMenuWidget.setRippleColor(Color.argb(100, 200, 100, 100));
             layout.addView(cycleMenuWidget);
         }
-        return new ItemHolder(view, this, this);
+        return new ItemHolder(view);
     }
 
     @Override
     public void onBindViewHolder(RecyclerViewAdapter.ItemHolder holder, int position) {
-        holder.mCycleMenuWidget.setCurrentPosition(mPositions[position]);
-        holder.mCycleMenuWidget.setCurrentItemsAngleOffset(mAngles[position]);
-        if (mMenuStatesOpen[position]) {
-            holder.mCycleMenuWidget.open(false);
-        } else {
-            holder.mCycleMenuWidget.close(false);
-        }
+        //rows aren't moved, so their positions are used as the keys of the states
+        holder.bind(mStateRegistry, position, DEFAULT_MENU_STATES_OPEN[position]);
     }
 
     @Override
@@ -92,77 +82,20 @@ public class RecyclerViewAdapter extends RecyclerView.Adapter<RecyclerViewAdapte
         return COUNT;
     }
 
-    @Override
-    public void onOpen(int position) {
-        Log.e("onOpenComplete", "onOpenComplete " + position + " " + mMenuStatesOpen.length);
-        if (position >= 0 && position < mMenuStatesOpen.length) {
-            mMenuStatesOpen[position] = true;
-        }
-    }
-
-    @Override
-    public void onClose(int position) {
-        Log.e("onCloseComplete", "onCloseComplete " + position + " " + mMenuStatesOpen.length);
-        if (position >= 0 && position < mMenuStatesOpen.length) {
-            mMenuStatesOpen[position] = false;
-        }
-    }
-
-    @Override
-    public void saveState(int adapterPosition, int itemPosition, double lastItemAngleShift) {
-        mPositions[adapterPosition] = itemPosition;
-        mAngles[adapterPosition] = lastItemAngleShift;
-    }
-
-
-    static class ItemHolder extends RecyclerView.ViewHolder implements OnStateChangedListener, StateSaveListener, OnMenuItemClickListener {
+    static class ItemHolder extends RecyclerView.ViewHolder implements OnMenuItemClickListener {
 
         private CycleMenuWidget mCycleMenuWidget;
-        private OnItemCycleMenuStateChangedListener mListener;
-        private StateSaver saver;
 
-        ItemHolder(View itemView, OnItemCycleMenuStateChangedListener listener, StateSaver saver) {
+        ItemHolder(View itemView) {
             super(itemView);
-            this.mListener = listener;
             mCycleMenuWidget = (CycleMenuWidget) itemView.findViewById(R.id.itemCycleMenuWidget);
-            mCycleMenuWidget.setStateChangeListener(this);
-            mCycleMenuWidget.setStateSaveListener(this);
             mCycleMenuWidget.setOnMenuItemClickListener(this);
-            this.saver = saver;
         }
 
-        @Override
-        public void saveState(int itemPosition, double lastItemAngleShift) {
-            if (saver != null) {
-                saver.saveState(getAdapterPosition(), itemPosition, lastItemAngleShift);
-            }
+        void bind(CycleMenuStateRegistry stateRegistry, long key, boolean defaultOpen) {
+            mCycleMenuWidget.bindState(stateRegistry, key, defaultOpen);
         }
 
-        @Override
-        public void onStateChanged(CycleMenuWidget.STATE state) {
-            if (mListener == null) {
-                return;
-            }
-            //Will save state in process because user can scroll to next item and onOpenComplete or onCloseComplete will not be received due to reuse of holder.
-            if (state == CycleMenuWidget.STATE.IN_OPEN_PROCESS) {
-                mListener.onOpen(getAdapterPosition());
-            }
-            if (state == CycleMenuWidget.STATE.IN_CLOSE_PROCESS) {
-                mListener.onClose(getAdapterPosition());
-            }
-        }
-
-        @Override
-        public void onOpenComplete() {
-
-        }
-
-        @Override
-        public void onCloseComplete() {
-
-        }
-
-
         @Override
         public void onMenuItemClick(View view, int itemPosition) {
             Log.i("onMenuItemClick", "Click view id = " + view.getId() + " itemPosition = " + itemPosition);
@@ -1,6 +0,0 @@
-package com.cleveroad.cyclemenusample;
-
-interface StateSaver {
-
-    void saveState(int adapterPosition, int itemPosition, double lastItemAngleShift);
-}
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.cleveroad.cyclemenusample;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.Debug;
+import android.support.v4.view.ViewCompat;
+import android.support.v7.app.AppCompatActivity;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.util.Log;
+import android.view.View;
+import android.widget.TextView;
+
+import com.cleveroad.cyclemenuwidget.CycleMenuWidget;
+
+import java.util.Locale;
+
+/**
+ * Stress mode of the sample. Shows a long feed with cycle menus in each row and scrolls it automatically.
+ * Frame timing, memory, hardware layers of the menu animations and count of inflated rows are shown every second and written to the log.
+ * <p>
+ * Can be configured with intent extras, e.g.:
+ * {@code adb shell am start -n com.cleveroad.cyclemenusample/.StressActivity --ei rows 5000 --el seed 7 --ei scroll_speed 40}
+ */
+public class StressActivity extends AppCompatActivity {
+
+    public static final String EXTRA_ROWS = "rows";
+    public static final String EXTRA_SEED = "seed";
+    public static final String EXTRA_AUTO_SCROLL = "auto_scroll";
+    public static final String EXTRA_SCROLL_SPEED = "scroll_speed";
+
+    private static final String TAG = "CycleMenuStress";
+    private static final int DEFAULT_ROWS = 2000;
+    private static final long DEFAULT_SEED = 42;
+    private static final int DEFAULT_SCROLL_SPEED = 24;
+    private static final int REPORT_PERIOD = 1000;
+    private static final int BYTES_IN_KB = 1024;
+
+    private RecyclerView mRecyclerView;
+    private TextView mTvStats;
+    private StressRecyclerViewAdapter mAdapter;
+    private FrameStatsMonitor mFrameStatsMonitor = new FrameStatsMonitor();
+
+    private boolean mAutoScroll;
+    private int mScrollSpeed;
+    private int mScrollDirection = 1;
+    private boolean mResumed = false;
+
+    private Runnable mAutoScrollRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (!mResumed || !mAutoScroll) {
+                return;
+            }
+            if (!mRecyclerView.canScrollVertically(mScrollDirection)) {
+                mScrollDirection = -mScrollDirection;
+            }
+            mRecyclerView.scrollBy(0, mScrollSpeed * mScrollDirection);
+            ViewCompat.postOnAnimation(mRecyclerView, this);
+        }
+    };
+
+    private Runnable mReportRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (!mResumed) {
+                return;
+            }
+            report();
+            mTvStats.postDelayed(this, REPORT_PERIOD);
+        }
+    };
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_stress);
+        Intent intent = getIntent();
+        int rows = intent.getIntExtra(EXTRA_ROWS, DEFAULT_ROWS);
+        long seed = intent.getLongExtra(EXTRA_SEED, DEFAULT_SEED);
+        mAutoScroll = intent.getBooleanExtra(EXTRA_AUTO_SCROLL, true);
+        mScrollSpeed = intent.getIntExtra(EXTRA_SCROLL_SPEED, DEFAULT_SCROLL_SPEED);
+
+        mTvStats = (TextView) findViewById(R.id.tvStressStats);
+        mRecyclerView = (RecyclerView) findViewById(R.id.rvStressList);
+        mRecyclerView.setLayoutManager(new LinearLayoutManager(this));
+        mAdapter = new StressRecyclerViewAdapter(this, rows, seed);
+        mRecyclerView.setAdapter(mAdapter);
+        Log.i(TAG, "rows = " + rows + " seed = " + seed + " autoScroll = " + mAutoScroll + " speed = " + mScrollSpeed);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        mResumed = true;
+        mFrameStatsMonitor.reset();
+        mFrameStatsMonitor.start();
+        ViewCompat.postOnAnimation(mRecyclerView, mAutoScrollRunnable);
+        mTvStats.postDelayed(mReportRunnable, REPORT_PERIOD);
+    }
+
+    @Override
+    protected void onPause() {
+        mResumed = false;
+        mFrameStatsMonitor.stop();
+        mRecyclerView.removeCallbacks(mAutoScrollRunnable);
+        mTvStats.removeCallbacks(mReportRunnable);
+        super.onPause();
+    }
+
+    /**
+     * Menus of the detached rows don't hold layers, so only the shown rows are counted.
+     */
+    private long getAnimationLayersMemory() {
+        long bytes = 0;
+        for (int i = mRecyclerView.getChildCount() - 1; i >= 0; i--) {
+            View row = mRecyclerView.getChildAt(i);
+            CycleMenuWidget cycleMenuWidget = (CycleMenuWidget) row.findViewById(R.id.itemCycleMenuWidget);
+            if (cycleMenuWidget != null) {
+                bytes += cycleMenuWidget.getAnimationLayersMemory();
+            }
+        }
+        return bytes;
+    }
+
+    private void report() {
+        Runtime runtime = Runtime.getRuntime();
+        long javaHeapKb = (runtime.totalMemory() - runtime.freeMemory()) / BYTES_IN_KB;
+        long nativeHeapKb = Debug.getNativeHeapAllocatedSize() / BYTES_IN_KB;
+        long layersKb = getAnimationLayersMemory() / BYTES_IN_KB;
+        String stats = String.format(Locale.US,
+                "frames %d, janky %d, avg %.1f ms, max %.1f ms\njava %d KB, native %d KB, layers %d KB, rows inflated %d",
+                mFrameStatsMonitor.getFrameCount(),
+                mFrameStatsMonitor.getJankFrameCount(),
+                mFrameStatsMonitor.getAverageFrameMillis(),
+                mFrameStatsMonitor.getMaxFrameMillis(),
+                javaHeapKb,
+                nativeHeapKb,
+                layersKb,
+                mAdapter.getInflatedRowsCount());
+        mTvStats.setText(stats);
+        Log.i(TAG, stats.replace('\n', ' '));
+        mFrameStatsMonitor.reset();
+    }
+}
@@ -0,0 +1,85 @@
+package com.cleveroad.cyclemenusample;
+
+import android.content.Context;
+import android.support.v7.widget.RecyclerView;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.cleveroad.cyclemenuwidget.CycleMenuStateRegistry;
+import com.cleveroad.cyclemenuwidget.CycleMenuWidget;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Adapter for the stress mode. Every row gets random corner, menu and open state generated from the seed,
+ * so the same seed produces the same feed.
+ */
+class StressRecyclerViewAdapter extends RecyclerView.Adapter<RecyclerViewAdapter.ItemHolder> {
+
+    private static final int[] MENUS = {R.menu.cycle_menu_3, R.menu.cycle_menu_4, R.menu.cycle_menu_5, R.menu.cycle_menu_22};
+    private static final CycleMenuWidget.CORNER[] CORNERS = CycleMenuWidget.CORNER.values();
+
+    private Context mContext;
+    private int mCount;
+
+    /**
+     * View type of each row. Contains index of the corner and index of the menu.
+     */
+    private int[] mViewTypes;
+    /**
+     * Open state of the menus before they are changed by the user.
+     */
+    private BitSet mDefaultStatesOpen;
+    private CycleMenuStateRegistry mStateRegistry = new CycleMenuStateRegistry();
+
+    /**
+     * Count of the rows (and cycle menu widgets) inflated by the adapter.
+     */
+    private int mInflatedRowsCount = 0;
+
+    StressRecyclerViewAdapter(Context context, int count, long seed) {
+        mContext = context;
+        mCount = count;
+        mViewTypes = new int[count];
+        mDefaultStatesOpen = new BitSet(count);
+
+        Random random = new Random(seed);
+        for (int i = 0; i < count; i++) {
+            mViewTypes[i] = random.nextInt(CORNERS.length) * MENUS.length + random.nextInt(MENUS.length);
+            mDefaultStatesOpen.set(i, random.nextBoolean());
+        }
+    }
+
+    int getInflatedRowsCount() {
+        return mInflatedRowsCount;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return mViewTypes[position];
+    }
+
+    @Override
+    public RecyclerViewAdapter.ItemHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(mContext).inflate(R.layout.item_example, parent, false);
+        CycleMenuWidget cycleMenuWidget = (CycleMenuWidget) view.findViewById(R.id.itemCycleMenuWidget);
+        //menu is inflated off the main thread, so creating of the rows doesn't wait for the icons
+        cycleMenuWidget.setMenuResAsync(MENUS[viewType % MENUS.length]);
+        cycleMenuWidget.setCorner(CORNERS[viewType / MENUS.length]);
+        mInflatedRowsCount++;
+        return new RecyclerViewAdapter.ItemHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(RecyclerViewAdapter.ItemHolder holder, int position) {
+        //registry keeps the states of the last used rows only, so memory doesn't grow with the feed
+        holder.bind(mStateRegistry, position, mDefaultStatesOpen.get(position));
+    }
+
+    @Override
+    public int getItemCount() {
+        return mCount;
+    }
+}